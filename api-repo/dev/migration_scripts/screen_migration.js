@@ -1,4 +1,5 @@
 const fs = require('fs');
+const zlib = require('zlib');
 const awsS3 = require('@aws-sdk/client-s3');
 const s3 = new awsS3.S3Client({region: 'us-east-2'});
 
@@ -35,7 +36,7 @@ async function doFor(hash) {
 }
 
 async function getDataFromS3File(bucketName, path) {
-  const {Body: body0} = await s3.send(new awsS3.GetObjectCommand({
+  const {Body: body0, ContentEncoding: contentEncoding} = await s3.send(new awsS3.GetObjectCommand({
     Bucket: bucketName,
     Key: path,
   }));
@@ -45,7 +46,9 @@ async function getDataFromS3File(bucketName, path) {
   for await (const bodyChunk of nBody) {
     chunks.push(Buffer.from(bodyChunk));
   }
-  const contentStr = Buffer.concat(chunks).toString('utf-8');
+  // Big json files are stored gzip compressed by the api server
+  const content = Buffer.concat(chunks);
+  const contentStr = (contentEncoding === 'gzip' ? zlib.gunzipSync(content) : content).toString('utf-8');
   const data = JSON.parse(contentStr);
   return data;
 }
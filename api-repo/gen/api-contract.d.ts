@@ -205,6 +205,19 @@ export interface OrgInfo {
 export interface PaymentTerms {
 }
 
+export interface PublishTourJobInfo extends JobProcessingInfo {
+    rid: string;
+    orgId: number;
+    publishedVersion: number;
+}
+
+export interface RepublishOrgJobInfo extends JobProcessingInfo {
+    orgId: number;
+    total: number;
+    done: number;
+    failed: number;
+}
+
 export interface ReqExperimentConfig {
     key: string;
     value: any;
@@ -455,6 +468,12 @@ export interface ReqNfHook {
     payload: { [index: string]: string };
 }
 
+export interface ReqPatchEdit {
+    rid: string;
+    baseVersion: string;
+    patch: any;
+}
+
 export interface ReqProxyAsset {
     origin: string;
     clientInfo: string;
@@ -596,6 +615,7 @@ export interface RespDemoEntity extends ResponseBase {
     globalOpts?: any;
     settings?: TourSettings;
     datasets?: Dataset[];
+    editVersion?: string;
     owner: number;
 }
 
@@ -605,6 +625,23 @@ export interface RespDemoEntityWithSubEntities extends RespDemoEntity {
     cc: RespCommonConfig;
 }
 
+export interface RespEntitySummary {
+    id: number;
+    rid: string;
+    assetPrefixHash: string;
+    displayName: string;
+    description: string;
+    entityType: TopLevelEntityType;
+    inProgress: boolean;
+    lastPublishedDate: Date;
+    lastInteractedAt: Date;
+    updatedAt: Date;
+    createdById: number;
+    createdByFirstName: string;
+    createdByLastName: string;
+    createdByAvatar: string;
+}
+
 export interface RespGlobalOpts {
     globalOpts: any;
 }
@@ -649,6 +686,16 @@ export interface RespOrg extends ResponseBase {
     createdBy: RespUser;
 }
 
+export interface RespPage<T> {
+    items: T[];
+    next: string;
+}
+
+export interface RespPatchedEdit extends ResponseBase {
+    rid: string;
+    version: string;
+}
+
 export interface RespPlatformIntegration extends ResponseBase {
     type: PlatformIntegrationType;
     name: string;
@@ -666,11 +713,29 @@ export interface RespProxyAsset extends ResponseBase {
     hasErr?: boolean;
 }
 
+export interface RespPublishJob extends ResponseBase {
+    jobId: number;
+    rid: string;
+    processingState: JobProcessingStatus;
+    publishedVersion?: number;
+    failureReason?: string;
+}
+
+export interface RespRepublishJob extends ResponseBase {
+    jobId: number;
+    processingState: JobProcessingStatus;
+    total?: number;
+    done?: number;
+    failed?: number;
+    failureReason?: string;
+}
+
 export interface RespScreen extends ResponseBase {
     id: number;
     parentScreenId: number;
     rid: string;
     assetPrefixHash: string;
+    blobPrefixHash?: string;
     displayName: string;
     createdBy: RespUser;
     thumbnail: string;
@@ -679,6 +744,24 @@ export interface RespScreen extends ResponseBase {
     responsive: boolean;
     type: ScreenType;
     uploadUrl?: string;
+    pubEditFileName?: string;
+    editVersion?: string;
+}
+
+export interface RespScreenSummary {
+    id: number;
+    parentScreenId: number;
+    rid: string;
+    assetPrefixHash: string;
+    displayName: string;
+    thumbnail: string;
+    url: string;
+    icon: string;
+    type: ScreenType;
+    updatedAt: Date;
+    createdById: number;
+    createdByFirstName: string;
+    createdByLastName: string;
 }
 
 export interface RespSubsValidation {
@@ -911,6 +994,8 @@ export const enum JobType {
     CREATE_DEMO_GIF = "CREATE_DEMO_GIF",
     DELETE_ASSET = "DELETE_ASSET",
     REFRESH_CRAWLER = "REFRESH_CRAWLER",
+    PUBLISH_TOUR = "PUBLISH_TOUR",
+    REPUBLISH_ORG = "REPUBLISH_ORG",
 }
 
 export const enum PvtAssetType {
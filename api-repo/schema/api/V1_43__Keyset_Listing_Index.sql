@@ -0,0 +1,2 @@
+CREATE INDEX IDX_org_deleted_type_updated ON fable_tour_app.tour (belongs_to_org, deleted, entity_type, updated_at, id);
+CREATE INDEX IDX_org_updated ON fable_tour_app.screen (belongs_to_org, updated_at, id);
@@ -0,0 +1,9 @@
+CREATE TABLE fable_tour_app.cache_invalidation
+(
+    id         BIGINT UNSIGNED AUTO_INCREMENT PRIMARY KEY,
+    created_at TIMESTAMP    NOT NULL,
+    updated_at TIMESTAMP    NOT NULL,
+    scope      VARCHAR(255) NOT NULL,
+    scope_id   BIGINT       NOT NULL
+);
+CREATE INDEX IDX_created_at ON fable_tour_app.cache_invalidation (created_at);
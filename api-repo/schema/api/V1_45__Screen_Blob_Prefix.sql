@@ -0,0 +1,6 @@
+-- Cloned screens refer to the immutable files (index.json, index.img) of the screen they are cloned from instead of
+-- copying them. Null means the files are under the screen's own asset_prefix_hash.
+ALTER TABLE fable_tour_app.screen
+    ADD COLUMN blob_prefix_hash VARCHAR(32) NULL;
+
+CREATE INDEX IDX_blob_prefix_hash ON fable_tour_app.screen (blob_prefix_hash);
@@ -0,0 +1,10 @@
+-- Catalogue ETags are derived from updated_at, with second precision two updates of a row within a second were
+-- indistinguishable.
+ALTER TABLE fable_tour_app.tour
+    MODIFY updated_at TIMESTAMP(6) NOT NULL;
+
+ALTER TABLE fable_tour_app.screen
+    MODIFY updated_at TIMESTAMP(6) NOT NULL;
+
+ALTER TABLE fable_tour_app.user
+    MODIFY updated_at TIMESTAMP(6) NOT NULL;
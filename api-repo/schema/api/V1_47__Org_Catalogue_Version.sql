@@ -0,0 +1,3 @@
+-- Bumped with every change to the tours, demo hubs and screens of the org, the list endpoints derive their ETag from it
+ALTER TABLE fable_tour_app.org
+    ADD COLUMN catalogue_version BIGINT UNSIGNED NOT NULL DEFAULT 0;
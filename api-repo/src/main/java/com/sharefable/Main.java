@@ -6,6 +6,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
@@ -13,6 +14,7 @@ import java.time.Duration;
 @SpringBootApplication
 @Slf4j
 @EnableAsync
+@EnableScheduling
 public class Main {
 
   public static void main(String[] args) {
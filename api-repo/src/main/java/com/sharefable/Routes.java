@@ -27,6 +27,8 @@ public interface Routes {
   String CHARGEBEE_WEBHOOK = "/wh/cb";
   String API_KEY_WEBHOOK_PROBE = "/apikey/probe";
   String FEATURE_PLAN_MATRIX = "/featureplanmtx";
+  // Checked by the file server before it accepts an upload to the local object store, see LocalObjectStore
+  String LOCAL_STORE_UPLOAD_AUTH = "/lstore/uploadauth";
 
   // only for migration
   String PUBLISH_TOUR_INTERNAL = "/m/tpub";
@@ -55,9 +57,11 @@ public interface Routes {
   String NEW_SCREEN = __BEHIND_LOGIN__ + "/newscreen";
   String CREATE_THUMBNAIL = __BEHIND_LOGIN__ + "/genthumb";
   String GET_ALL_SCREENS = __BEHIND_LOGIN__ + "/screens";
+  String GET_SCREENS_PAGE = __BEHIND_LOGIN__ + "/screenspg";
   String COPY_SCREEN = __BEHIND_LOGIN__ + "/copyscreen";
   String ASSOCIATE_SCREEN_TO_TOUR = __BEHIND_LOGIN__ + "/astsrntotour";
   String GET_ALL_TOURS = __BEHIND_LOGIN__ + "/tours";
+  String GET_TOURS_PAGE = __BEHIND_LOGIN__ + "/tourspg";
   String NEW_TOUR = __BEHIND_LOGIN__ + "/newtour";
   String DELETE_TOUR = __BEHIND_LOGIN__ + "/deltour";
   String UPDATE_TOUR_PROPERTY = __BEHIND_LOGIN__ + "/updtrprop";
@@ -67,6 +71,10 @@ public interface Routes {
   String RECORD_TOUR_EDIT = __BEHIND_LOGIN__ + "/recordtredit";
   String RECORD_TOUR_EDIT_FILE = __BEHIND_LOGIN__ + "/recordtrgbedit";
   String RECORD_TOUR_LOADER_EDIT = __BEHIND_LOGIN__ + "/recordtrloaderedit";
+  String PATCH_EL_EDIT = __BEHIND_LOGIN__ + "/patcheledit";
+  String PATCH_TOUR_EDIT = __BEHIND_LOGIN__ + "/patchtredit";
+  String PATCH_TOUR_EDIT_FILE = __BEHIND_LOGIN__ + "/patchtrgbedit";
+  String PATCH_TOUR_LOADER_EDIT = __BEHIND_LOGIN__ + "/patchtrloaderedit";
   String UPDATE_GLOBAL_OPTS = __BEHIND_LOGIN__ + "/updtgopts";
   String GET_GLOBAL_OPTS = __BEHIND_LOGIN__ + "/gopts";
   String RENAME_TOUR = __BEHIND_LOGIN__ + "/renametour";
@@ -85,6 +93,8 @@ public interface Routes {
   String ACTIVATE_OR_DEACTIVATE_USER = __BEHIND_LOGIN__ + "/aodusr";
   String GEN_CHECKOUT_URL = __BEHIND_LOGIN__ + "/genchckouturl";
   String PUBLISH_TOUR = __BEHIND_LOGIN__ + "/tpub";
+  String PUBLISH_TOUR_JOB = __BEHIND_LOGIN__ + "/tpubjob";
+  String REPUBLISH_ORG_JOB = __BEHIND_LOGIN__ + "/repubjob";
   String TOKEN_FOR_LINKED_ACCOUNT = __BEHIND_LOGIN__ + COBALT + "/tknlnkdacc";
   String LIST_APPS_FOR_LINKED_ACCOUNT = __BEHIND_LOGIN__ + COBALT + "/lstapp";
   String COBALT_EVENT_AUTHED = __BEHIND_LOGIN__ + COBALT + "/evnt";
@@ -122,6 +132,7 @@ public interface Routes {
   String UPDATE_DEMO_HUB_PROP = __BEHIND_LOGIN__ + "/updtdhprops";
   String DELETE_DEMO_HUB = __BEHIND_LOGIN__ + "/deldh";
   String GET_ALL_DEMO_HUB = __BEHIND_LOGIN__ + "/dhs";
+  String GET_DEMO_HUBS_PAGE = __BEHIND_LOGIN__ + "/dhspg";
   String GET_DEMO_HUB = "/dh";
   String PUBLISH_DEMO_HUB = __BEHIND_LOGIN__ + "/pubdh";
   String RECORD_EDIT_DEMO_HUB = __BEHIND_LOGIN__ + "/recorddhedit";
@@ -133,6 +144,7 @@ public interface Routes {
   /* === Cross service w/o authentication === */
 
   String GET_ALL_TOURS_BY_API_KEY = "/via/ak/tours";
+  String GET_TOURS_PAGE_BY_API_KEY = "/via/ak/tourspg";
   //  String HUBSPOT_DATA_FETCH_URL_HOOK = HUBSPOT + "/dfu";
   String APP_SUMO_WEBHOOK = APP_SUMO + "/whk";
   String APP_SUMO_REDIRECT_URL = APP_SUMO + "/redir";
@@ -0,0 +1,4 @@
+package com.sharefable.api.common;
+
+public record ApiKeyOwner(String apiKey, Long orgId, Boolean active) {
+}
@@ -0,0 +1,14 @@
+package com.sharefable.api.common;
+
+public enum CacheInvalidationScope {
+  // scope id is the id of a tour / demo hub
+  ENTITY,
+  // scope id is the id of an org, everything that belongs to the org is invalidated
+  ORG,
+  // scope id is the id of a user, the user's resolved principals are invalidated
+  USER,
+  // scope id is the id of an org, resolved principals of all the members of the org are invalidated
+  ORG_MEMBERS,
+  // scope id is the id of an org, api keys of the org are loaded again
+  API_KEY
+}
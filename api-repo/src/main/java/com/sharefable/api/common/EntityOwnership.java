@@ -0,0 +1,15 @@
+package com.sharefable.api.common;
+
+import com.sharefable.api.transport.TourDeleted;
+
+/*
+ * Narrow view of a tour / demo hub / screen that carries only what is required to authorize an access and to locate the
+ * entity's files.
+ */
+public record EntityOwnership(Long id, Long belongsToOrg, TourDeleted deleted, TopLevelEntityType entityType,
+                              String assetPrefixHash) {
+  // Screens are neither soft deleted nor typed
+  public EntityOwnership(Long id, Long belongsToOrg, String assetPrefixHash) {
+    this(id, belongsToOrg, null, null, assetPrefixHash);
+  }
+}
@@ -0,0 +1,86 @@
+package com.sharefable.api.common;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/*
+ * Small in-process cache that is bounded by size (least recently accessed entry is evicted first) and by time (every
+ * entry carries its own expiry). This is used for hot path lookups where a stale read for a short period is acceptable
+ * and the source of truth is invalidated explicitly on write.
+ */
+public class ExpiringLruCache<K, V> {
+  private final int maxSize;
+  private final Duration defaultTtl;
+  private final LinkedHashMap<K, CacheEntry<V>> store;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public ExpiringLruCache(int maxSize, Duration defaultTtl) {
+    this.maxSize = maxSize;
+    this.defaultTtl = defaultTtl;
+    this.store = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+        boolean shouldEvict = size() > ExpiringLruCache.this.maxSize;
+        if (shouldEvict) evictions.incrementAndGet();
+        return shouldEvict;
+      }
+    };
+  }
+
+  public synchronized Optional<V> get(K key) {
+    CacheEntry<V> entry = store.get(key);
+    if (entry == null) {
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+    if (entry.expireAtMs() <= System.currentTimeMillis()) {
+      store.remove(key);
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+    hits.incrementAndGet();
+    return Optional.of(entry.value());
+  }
+
+  public void put(K key, V value) {
+    put(key, value, System.currentTimeMillis() + defaultTtl.toMillis());
+  }
+
+  public synchronized void put(K key, V value, long expireAtMs) {
+    if (expireAtMs <= System.currentTimeMillis()) return;
+    store.put(key, new CacheEntry<>(value, expireAtMs));
+  }
+
+  public synchronized void invalidate(K key) {
+    store.remove(key);
+  }
+
+  public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+    Iterator<Map.Entry<K, CacheEntry<V>>> it = store.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<K, CacheEntry<V>> entry = it.next();
+      if (predicate.test(entry.getKey(), entry.getValue().value())) it.remove();
+    }
+  }
+
+  public synchronized void invalidateAll() {
+    store.clear();
+  }
+
+  public synchronized Stats stats() {
+    return new Stats(hits.get(), misses.get(), evictions.get(), store.size());
+  }
+
+  private record CacheEntry<V>(V value, long expireAtMs) {
+  }
+
+  public record Stats(long hits, long misses, long evictions, int size) {
+  }
+}
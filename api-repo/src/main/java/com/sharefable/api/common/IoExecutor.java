@@ -0,0 +1,199 @@
+package com.sharefable.api.common;
+
+import com.sharefable.api.config.OrgContext;
+import io.sentry.IHub;
+import io.sentry.Sentry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Process wide, bounded executors for blocking io. Earlier every parallel S3 operation created (and shut down) its own
+ * thread pool, so duplicating a tour with n screens created n pools and there was no upper bound on the number of
+ * concurrent S3 calls.
+ *
+ * - The number of threads is the global concurrency limit for the kind of io. When the queue is full the submitting
+ *   thread runs the task itself, which slows down the producer instead of failing the request. Executors of long
+ *   running background jobs reject the task instead, a request thread must never end up running a job.
+ * - OrgContext and the Sentry hub of the submitting thread are carried over to the task.
+ * - A task that fans out further on the same executor runs the sub tasks inline, as waiting on its own pool from a
+ *   pool thread can deadlock once the pool is saturated.
+ */
+public final class IoExecutor implements Executor {
+  public static final IoExecutor S3 = new IoExecutor("s3-io", 64, 1_000, true);
+  public static final IoExecutor HTTP = new IoExecutor("http-io", 32, 500, true);
+  // Background publish jobs, every job fans out further on S3
+  public static final IoExecutor PUBLISH = new IoExecutor("publish", 4, 500, false);
+  // Tour manifest generation, runs once per queued tour (see TourManifestService) hence the long queue
+  public static final IoExecutor MANIFEST = new IoExecutor("manifest", 4, 10_000, false);
+
+  private final String name;
+  private final ThreadPoolExecutor pool;
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong queueWaitNanos = new AtomicLong();
+  private final AtomicLong runNanos = new AtomicLong();
+
+  private IoExecutor(String name, int maxConcurrency, int queueCapacity, boolean callerRunsWhenFull) {
+    this.name = name;
+    AtomicInteger threadNo = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(
+      maxConcurrency,
+      maxConcurrency,
+      60, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<>(queueCapacity),
+      runnable -> {
+        Thread thread = new IoThread(this, runnable, name + "-" + threadNo.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      },
+      // Same as CallerRunsPolicy but a task submitted after shutdown fails instead of being dropped silently
+      (runnable, executor) -> {
+        if (executor.isShutdown()) throw new RejectedExecutionException(name + " is shut down");
+        if (!callerRunsWhenFull) throw new RejectedExecutionException(name + " is full");
+        runnable.run();
+      });
+    this.pool.allowCoreThreadTimeOut(true);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    if (isOwnThread()) {
+      command.run();
+      return;
+    }
+    submitted.incrementAndGet();
+    try {
+      pool.execute(withContext(Executors.callable(command), null));
+    } catch (RejectedExecutionException e) {
+      failed.incrementAndGet();
+      throw e;
+    }
+  }
+
+  public <T> CompletableFuture<T> supplyAsync(Callable<T> callable) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    if (isOwnThread()) {
+      try {
+        future.complete(callable.call());
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+      return future;
+    }
+    submitted.incrementAndGet();
+    try {
+      pool.execute(withContext(callable, future));
+    } catch (RejectedExecutionException e) {
+      failed.incrementAndGet();
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /*
+   * Runs all the callables and returns the results in the same order. The first failure is rethrown after all the
+   * callables are done.
+   */
+  public <T> List<T> invokeAll(List<Callable<T>> callables) throws Exception {
+    if (callables.size() <= 1 || isOwnThread()) {
+      List<T> results = new ArrayList<>(callables.size());
+      for (Callable<T> callable : callables) results.add(callable.call());
+      return results;
+    }
+
+    List<CompletableFuture<T>> futures = callables.stream().map(this::supplyAsync).toList();
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof Exception cause) throw cause;
+      throw e;
+    }
+    return futures.stream().map(CompletableFuture::join).toList();
+  }
+
+  // True when a task submitted now would wait for a free slot in the queue (or be rejected)
+  public boolean isSaturated() {
+    return pool.getQueue().remainingCapacity() == 0;
+  }
+
+  public Stats stats() {
+    long done = completed.get() + failed.get();
+    return new Stats(
+      name,
+      pool.getMaximumPoolSize(),
+      pool.getActiveCount(),
+      pool.getQueue().size(),
+      submitted.get(),
+      completed.get(),
+      failed.get(),
+      done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.get() / done),
+      done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(runNanos.get() / done)
+    );
+  }
+
+  /*
+   * Stops taking tasks and waits for the queued and running ones to finish. Tasks submitted after this are rejected,
+   * see IoExecutorLifecycle for the order in which the executors are shut down.
+   */
+  public void shutdown(Duration timeout) throws InterruptedException {
+    pool.shutdown();
+    if (!pool.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      pool.shutdownNow();
+    }
+  }
+
+  private boolean isOwnThread() {
+    return Thread.currentThread() instanceof IoThread thread && thread.owner == this;
+  }
+
+  // The outcome of the task goes to result when it's not null, otherwise a failure is thrown to the pool
+  private <T> Runnable withContext(Callable<T> task, CompletableFuture<T> result) {
+    Long orgId = OrgContext.getCurrentOrgId();
+    IHub hub = Sentry.getCurrentHub().clone();
+    long enqueuedAt = System.nanoTime();
+
+    return () -> {
+      long startedAt = System.nanoTime();
+      queueWaitNanos.addAndGet(startedAt - enqueuedAt);
+
+      Long previousOrgId = OrgContext.getCurrentOrgId();
+      IHub previousHub = Sentry.getCurrentHub();
+      OrgContext.setCurrentOrgId(orgId);
+      Sentry.setCurrentHub(hub);
+      try {
+        T value = task.call();
+        completed.incrementAndGet();
+        if (result != null) result.complete(value);
+      } catch (Throwable e) {
+        failed.incrementAndGet();
+        if (result != null) result.completeExceptionally(e);
+        else if (e instanceof RuntimeException re) throw re;
+        else if (e instanceof Error err) throw err;
+        else throw new CompletionException(e);
+      } finally {
+        runNanos.addAndGet(System.nanoTime() - startedAt);
+        OrgContext.setCurrentOrgId(previousOrgId);
+        Sentry.setCurrentHub(previousHub);
+      }
+    };
+  }
+
+  private static final class IoThread extends Thread {
+    private final IoExecutor owner;
+
+    private IoThread(IoExecutor owner, Runnable runnable, String name) {
+      super(runnable, name);
+      this.owner = owner;
+    }
+  }
+
+  public record Stats(String name, int maxConcurrency, int active, int queued, long submitted, long completed,
+                      long failed, long avgQueueWaitMs, long avgRunMs) {
+  }
+}
@@ -0,0 +1,132 @@
+package com.sharefable.api.common;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/*
+ * Applies a JSON Patch (RFC 6902) to a document. All the operations (add, remove, replace, move, copy, test) are
+ * supported; the patch is applied to a copy of the document, hence the document is left as is if the patch fails.
+ */
+public final class JsonPatch {
+  private JsonPatch() {
+  }
+
+  public static JsonNode apply(JsonNode document, JsonNode patch) {
+    if (patch == null || !patch.isArray()) throw new InvalidPatchException("Patch must be an array of operations");
+
+    JsonNode root = document.deepCopy();
+    for (JsonNode operation : patch) {
+      String op = operation.path("op").asText();
+      JsonPointer path = pointer(operation, "path");
+      root = switch (op) {
+        case "add" -> add(root, path, value(operation));
+        case "remove" -> {
+          remove(root, path);
+          yield root;
+        }
+        case "replace" -> replace(root, path, value(operation));
+        case "move" -> {
+          JsonPointer from = pointer(operation, "from");
+          if (path.toString().startsWith(from + "/")) {
+            throw new InvalidPatchException("Can't move " + from + " to its own child " + path);
+          }
+          JsonNode value = get(root, from);
+          if (from.matches()) yield value;
+          remove(root, from);
+          yield add(root, path, value);
+        }
+        case "copy" -> add(root, path, get(root, pointer(operation, "from")).deepCopy());
+        case "test" -> {
+          if (!get(root, path).equals(value(operation))) throw new TestFailedException(path);
+          yield root;
+        }
+        default -> throw new InvalidPatchException("Unknown operation " + op);
+      };
+    }
+    return root;
+  }
+
+  private static JsonNode add(JsonNode root, JsonPointer path, JsonNode value) {
+    if (path.matches()) return value;
+
+    JsonNode parent = root.at(path.head());
+    String token = path.last().getMatchingProperty();
+    if (parent instanceof ObjectNode object) {
+      object.set(token, value);
+    } else if (parent instanceof ArrayNode array) {
+      if ("-".equals(token)) array.add(value);
+      else array.insert(index(token, array.size()), value);
+    } else {
+      throw new InvalidPatchException("Parent of " + path + " is not an object or array");
+    }
+    return root;
+  }
+
+  private static JsonNode replace(JsonNode root, JsonPointer path, JsonNode value) {
+    get(root, path);
+    if (path.matches()) return value;
+
+    JsonNode parent = root.at(path.head());
+    String token = path.last().getMatchingProperty();
+    if (parent instanceof ObjectNode object) object.set(token, value);
+    else ((ArrayNode) parent).set(index(token, parent.size() - 1), value);
+    return root;
+  }
+
+  private static void remove(JsonNode root, JsonPointer path) {
+    if (path.matches()) throw new InvalidPatchException("Can't remove the whole document");
+
+    get(root, path);
+    ContainerNode<?> parent = (ContainerNode<?>) root.at(path.head());
+    String token = path.last().getMatchingProperty();
+    if (parent instanceof ObjectNode object) object.remove(token);
+    else ((ArrayNode) parent).remove(index(token, parent.size() - 1));
+  }
+
+  private static JsonNode get(JsonNode root, JsonPointer path) {
+    JsonNode node = root.at(path);
+    if (node.isMissingNode()) throw new InvalidPatchException("Path " + path + " does not exist");
+    return node;
+  }
+
+  private static int index(String token, int max) {
+    try {
+      int idx = Integer.parseInt(token);
+      if (idx >= 0 && idx <= max && (idx == 0 || token.charAt(0) != '0')) return idx;
+    } catch (NumberFormatException e) {
+      // falls through
+    }
+    throw new InvalidPatchException("Invalid array index " + token);
+  }
+
+  private static JsonPointer pointer(JsonNode operation, String field) {
+    JsonNode pointer = operation.get(field);
+    if (pointer == null || !pointer.isTextual()) throw new InvalidPatchException("Operation is missing " + field);
+    try {
+      return JsonPointer.compile(pointer.asText());
+    } catch (IllegalArgumentException e) {
+      throw new InvalidPatchException("Invalid pointer " + pointer.asText());
+    }
+  }
+
+  private static JsonNode value(JsonNode operation) {
+    if (!operation.has("value")) throw new InvalidPatchException("Operation is missing value");
+    return operation.get("value").deepCopy();
+  }
+
+  public static class InvalidPatchException extends IllegalArgumentException {
+    public InvalidPatchException(String message) {
+      super(message);
+    }
+  }
+
+  // A failed test operation means the document is not in the state the patch was made for
+  public static class TestFailedException extends InvalidPatchException {
+    public TestFailedException(JsonPointer path) {
+      super("Test failed for " + path);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.sharefable.api.common;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Optional;
+
+/*
+ * Position in a list ordered by (updatedAt desc, id desc). The next page is everything strictly after the last item of
+ * the current page, hence no offset is ever scanned.
+ */
+public record KeysetCursor(Timestamp updatedAt, Long id) {
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 200;
+  // Cursor for the first page, every row is before this
+  public static final KeysetCursor START = new KeysetCursor(Timestamp.valueOf("9999-12-31 00:00:00"), Long.MAX_VALUE);
+
+  public static KeysetCursor from(Optional<String> encoded) {
+    if (encoded.isEmpty() || StringUtils.isBlank(encoded.get())) return START;
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(encoded.get()), StandardCharsets.UTF_8);
+      String[] parts = StringUtils.split(decoded, ":");
+      if (parts.length != 3) throw new IllegalArgumentException("Cursor has " + parts.length + " parts");
+      // updated_at has microsecond precision, the nanos are carried separately from the millis
+      Timestamp updatedAt = new Timestamp(Long.parseLong(parts[0]));
+      updatedAt.setNanos(Integer.parseInt(parts[2]));
+      return new KeysetCursor(updatedAt, Long.parseLong(parts[1]));
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+
+  public static int pageSize(Optional<Integer> size) {
+    return Math.min(Math.max(size.orElse(DEFAULT_PAGE_SIZE), 1), MAX_PAGE_SIZE);
+  }
+
+  // One more row than the page size is fetched to know if there is a next page
+  public static PageRequest pageRequestFor(int pageSize) {
+    return PageRequest.of(0, pageSize + 1);
+  }
+
+  public String encode() {
+    String raw = updatedAt.getTime() + ":" + id + ":" + updatedAt.getNanos();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
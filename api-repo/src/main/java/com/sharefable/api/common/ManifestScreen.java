@@ -0,0 +1,7 @@
+package com.sharefable.api.common;
+
+/*
+ * The fields of a screen that go in a tour's manifest file.
+ */
+public record ManifestScreen(String displayName, String url, String thumbnail, String icon) {
+}
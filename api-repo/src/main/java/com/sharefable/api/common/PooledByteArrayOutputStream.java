@@ -0,0 +1,84 @@
+package com.sharefable.api.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/*
+ * ByteArrayOutputStream whose buffer comes from (and goes back to) a process wide pool, so that serializing big files
+ * for upload does not allocate a new, repeatedly grown array every time. The content is read through toInputStream()
+ * without copying it.
+ *
+ * The pool is bounded by the bytes it holds, not by the number of buffers. A released buffer is kept as the most recent
+ * one and the least recently released buffers are dropped to make room for it, hence the pool ends up holding buffers
+ * of the size of the files that are actually uploaded. Buffers bigger than MAX_POOLED_CAPACITY (rare, huge files) are
+ * left to the gc.
+ *
+ * close() is a no-op like it is for ByteArrayOutputStream (serializers close the stream they write to); release() has
+ * to be called once the content is consumed, the stream must not be used after that.
+ */
+public final class PooledByteArrayOutputStream extends ByteArrayOutputStream {
+  private static final int INITIAL_CAPACITY = 64 * 1024;
+  private static final int MAX_POOLED_CAPACITY = 32 * 1024 * 1024;
+  private static final long MAX_POOLED_BYTES = 64 * 1024 * 1024;
+  private static final BufferPool POOL = new BufferPool(MAX_POOLED_BYTES, MAX_POOLED_CAPACITY);
+
+  private final BufferPool pool;
+
+  private PooledByteArrayOutputStream(BufferPool pool, byte[] buf) {
+    super(0);
+    this.pool = pool;
+    this.buf = buf;
+  }
+
+  public static PooledByteArrayOutputStream acquire() {
+    return acquire(POOL);
+  }
+
+  static PooledByteArrayOutputStream acquire(BufferPool pool) {
+    byte[] buf = pool.take();
+    return new PooledByteArrayOutputStream(pool, buf != null ? buf : new byte[INITIAL_CAPACITY]);
+  }
+
+  public synchronized InputStream toInputStream() {
+    return new ByteArrayInputStream(buf, 0, count);
+  }
+
+  public synchronized void release() {
+    pool.give(buf);
+    buf = new byte[0];
+    count = 0;
+  }
+
+  static final class BufferPool {
+    private final long maxPooledBytes;
+    private final int maxPooledCapacity;
+    // Most recently released first
+    private final Deque<byte[]> buffers = new ArrayDeque<>();
+    private long pooledBytes;
+
+    BufferPool(long maxPooledBytes, int maxPooledCapacity) {
+      this.maxPooledBytes = maxPooledBytes;
+      this.maxPooledCapacity = maxPooledCapacity;
+    }
+
+    synchronized byte[] take() {
+      byte[] buf = buffers.pollFirst();
+      if (buf != null) pooledBytes -= buf.length;
+      return buf;
+    }
+
+    synchronized void give(byte[] buf) {
+      if (buf.length == 0 || buf.length > maxPooledCapacity || buf.length > maxPooledBytes) return;
+      while (pooledBytes + buf.length > maxPooledBytes) pooledBytes -= buffers.pollLast().length;
+      buffers.addFirst(buf);
+      pooledBytes += buf.length;
+    }
+
+    synchronized long pooledBytes() {
+      return pooledBytes;
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.sharefable.api.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/*
+ * Written next to the tour's data files for every published version. It records which published version of each
+ * screen's edit file the tour version refers to, so that a screen whose edits did not change since the last publish
+ * keeps pointing to the already published file instead of getting a fresh copy.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PublishManifest {
+  private Integer version;
+  // screen's assetPrefixHash -> published edit file of the screen
+  private Map<String, PublishedFile> screenEdits;
+
+  public record PublishedFile(String sourceETag, Integer version) {
+  }
+}
@@ -0,0 +1,10 @@
+package com.sharefable.api.common;
+
+import java.sql.Timestamp;
+
+/*
+ * Cheap fingerprint of a set of rows. Any insert, delete or update (as long as updated_at is touched) of a row in the
+ * set changes either the count or the latest updated_at.
+ */
+public record RowSetVersion(Long count, Timestamp latestUpdatedAt) {
+}
@@ -0,0 +1,8 @@
+package com.sharefable.api.common;
+
+// Component whose runtime counters (cache hits, queue sizes etc.) are logged periodically by StatsLogger
+public interface StatsSource {
+  String statsName();
+
+  Object stats();
+}
@@ -0,0 +1,224 @@
+package com.sharefable.api.common;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sharefable.api.transport.SchemaVersion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/*
+ * Rewrites the screen ids of a duplicated tour's index file (index.json) in a single pass over the token stream. The
+ * rules are the ones the client used to apply after duplication (action/creator.ts duplicateGivenTour):
+ * - keys of `entities` and the `ref` of every entity
+ * - the screen part (`<screenId>/<annotationId>`) of the navigate action of annotation button hotspots
+ * - the screen part of `opts.main` and of `journey.flows[].main`
+ * Everything else is copied token by token, only a button's hotspot (a handful of fields) is read as a tree.
+ *
+ * Only the current schema version is understood, any other version fails with UnsupportedSchemaVersionException.
+ */
+public final class TourIndexScreenIdRemapper {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final JsonFactory JSON_FACTORY = MAPPER.getFactory();
+
+  private final Map<String, String> idxm;
+  private String schemaVersion;
+
+  private TourIndexScreenIdRemapper(Map<String, String> idxm) {
+    this.idxm = idxm;
+  }
+
+  public static void remap(InputStream in, OutputStream out, Map<String, String> idxm) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(in);
+         JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+      TourIndexScreenIdRemapper remapper = new TourIndexScreenIdRemapper(idxm);
+      if (parser.nextToken() != JsonToken.START_OBJECT) throw new UnsupportedSchemaVersionException(null);
+      remapper.copyRoot(parser, generator);
+      if (!SchemaVersion.V1.v.equals(remapper.schemaVersion)) {
+        throw new UnsupportedSchemaVersionException(remapper.schemaVersion);
+      }
+    }
+  }
+
+  private void copyRoot(JsonParser parser, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      generator.writeFieldName(field);
+      JsonToken value = parser.nextToken();
+      switch (field) {
+        case "v" -> {
+          schemaVersion = parser.getValueAsString();
+          if (!SchemaVersion.V1.v.equals(schemaVersion)) throw new UnsupportedSchemaVersionException(schemaVersion);
+          generator.copyCurrentEvent(parser);
+        }
+        case "entities" -> copyObjectOrValue(parser, generator, value, this::copyEntities);
+        case "opts" -> copyObjectOrValue(parser, generator, value, this::copyOpts);
+        case "journey" -> copyObjectOrValue(parser, generator, value, this::copyJourney);
+        default -> generator.copyCurrentStructure(parser);
+      }
+    }
+    generator.writeEndObject();
+  }
+
+  // entities: { [screenId]: { type, ref, annotations } }
+  private void copyEntities(JsonParser parser, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      generator.writeFieldName(idxm.getOrDefault(parser.getCurrentName(), parser.getCurrentName()));
+      JsonToken value = parser.nextToken();
+      copyObjectOrValue(parser, generator, value, this::copyEntity);
+    }
+    generator.writeEndObject();
+  }
+
+  private void copyEntity(JsonParser parser, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      generator.writeFieldName(field);
+      JsonToken value = parser.nextToken();
+      if ("ref".equals(field) && value == JsonToken.VALUE_STRING) {
+        generator.writeString(idxm.getOrDefault(parser.getText(), parser.getText()));
+      } else if ("annotations".equals(field)) {
+        copyObjectOrValue(parser, generator, value, this::copyAnnotations);
+      } else {
+        generator.copyCurrentStructure(parser);
+      }
+    }
+    generator.writeEndObject();
+  }
+
+  // annotations: { [annotationId]: { ..., buttons: [{ ..., hotspot }] } }
+  private void copyAnnotations(JsonParser parser, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      generator.writeFieldName(parser.getCurrentName());
+      JsonToken value = parser.nextToken();
+      copyObjectOrValue(parser, generator, value, this::copyAnnotation);
+    }
+    generator.writeEndObject();
+  }
+
+  private void copyAnnotation(JsonParser parser, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      generator.writeFieldName(field);
+      JsonToken value = parser.nextToken();
+      if ("buttons".equals(field) && value == JsonToken.START_ARRAY) {
+        generator.writeStartArray();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          copyObjectOrValue(parser, generator, parser.currentToken(), this::copyButton);
+        }
+        generator.writeEndArray();
+      } else {
+        generator.copyCurrentStructure(parser);
+      }
+    }
+    generator.writeEndObject();
+  }
+
+  private void copyButton(JsonParser parser, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      generator.writeFieldName(field);
+      JsonToken value = parser.nextToken();
+      if ("hotspot".equals(field) && value == JsonToken.START_OBJECT) {
+        // The order of actionType and actionValue is not known up front, the hotspot is small enough to be read whole
+        JsonNode hotspot = parser.readValueAsTree();
+        generator.writeTree(remapHotspot((ObjectNode) hotspot));
+      } else {
+        generator.copyCurrentStructure(parser);
+      }
+    }
+    generator.writeEndObject();
+  }
+
+  private JsonNode remapHotspot(ObjectNode hotspot) {
+    if (!"navigate".equals(hotspot.path("actionType").asText())) return hotspot;
+    JsonNode actionValue = hotspot.path("actionValue").path("_val");
+    if (!actionValue.isTextual()) return hotspot;
+
+    String remapped = remapScreenPart(actionValue.asText());
+    if (remapped.equals(actionValue.asText())) return hotspot;
+    // Same as createLiteralProperty on the client
+    ObjectNode literal = MAPPER.createObjectNode();
+    literal.put("type", 1); // PropertyType.LITERAL
+    literal.put("from", "");
+    literal.put("_val", remapped);
+    hotspot.set("actionValue", literal);
+    return hotspot;
+  }
+
+  private void copyOpts(JsonParser parser, JsonGenerator generator) throws IOException {
+    copyObjectRemappingMain(parser, generator);
+  }
+
+  // journey: { ..., flows: [{ ..., main }] }
+  private void copyJourney(JsonParser parser, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      generator.writeFieldName(field);
+      JsonToken value = parser.nextToken();
+      if ("flows".equals(field) && value == JsonToken.START_ARRAY) {
+        generator.writeStartArray();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          copyObjectOrValue(parser, generator, parser.currentToken(), this::copyObjectRemappingMain);
+        }
+        generator.writeEndArray();
+      } else {
+        generator.copyCurrentStructure(parser);
+      }
+    }
+    generator.writeEndObject();
+  }
+
+  private void copyObjectRemappingMain(JsonParser parser, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      generator.writeFieldName(field);
+      JsonToken value = parser.nextToken();
+      if ("main".equals(field) && value == JsonToken.VALUE_STRING) {
+        generator.writeString(remapScreenPart(parser.getText()));
+      } else {
+        generator.copyCurrentStructure(parser);
+      }
+    }
+    generator.writeEndObject();
+  }
+
+  // <screenId>/<annotationId>
+  private String remapScreenPart(String value) {
+    int sep = value.indexOf('/');
+    String screenId = sep == -1 ? value : value.substring(0, sep);
+    String newScreenId = idxm.get(screenId);
+    if (newScreenId == null) return value;
+    return sep == -1 ? newScreenId : newScreenId + value.substring(sep);
+  }
+
+  private void copyObjectOrValue(JsonParser parser, JsonGenerator generator, JsonToken current, ObjectCopier copier) throws IOException {
+    if (current == JsonToken.START_OBJECT) copier.copy(parser, generator);
+    else generator.copyCurrentStructure(parser);
+  }
+
+  private interface ObjectCopier {
+    void copy(JsonParser parser, JsonGenerator generator) throws IOException;
+  }
+
+  public static class UnsupportedSchemaVersionException extends IOException {
+    public UnsupportedSchemaVersionException(String version) {
+      super("Schema version " + version + " of tour index is not supported");
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.sharefable.api.common;
+
+import com.sharefable.api.entity.EntityBase;
+import com.sharefable.api.transport.resp.ResponseBase;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Copies an entity to the transport object referred by @TransportObjRef. The rules are the same as they have always
+ * been: every field declared in the entity class hierarchy (up to EntityBase) that has a public getter on the entity and
+ * a public setter of the same type on the transport object is copied; a field whose type is an entity itself is
+ * converted recursively.
+ * Resolving the getter / setter pairs is costly, hence it's done once per entity class and the resulting plan is reused
+ * for every conversion.
+ */
+public final class TransportObjMapper {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+  private static final Map<Class<?>, MappingPlan> plans = new ConcurrentHashMap<>();
+
+  private TransportObjMapper() {
+  }
+
+  public static ResponseBase map(EntityBase entity)
+    throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
+    MappingPlan plan = planFor(entity.getClass());
+    ResponseBase transportObj;
+    try {
+      // invokeExact is signature polymorphic, the result must be taken as Object before casting
+      Object instance = plan.constructor().invokeExact();
+      transportObj = (ResponseBase) instance;
+    } catch (Throwable e) {
+      throw new InvocationTargetException(e);
+    }
+
+    for (PropertyCopier copier : plan.copiers()) {
+      try {
+        Object valueFromEntity = copier.getter().invokeExact((Object) entity);
+        if (copier.isEntityRef() && valueFromEntity != null) {
+          valueFromEntity = map((EntityBase) valueFromEntity);
+        }
+        copier.setter().invokeExact((Object) transportObj, valueFromEntity);
+      } catch (VirtualMachineError e) {
+        throw e;
+      } catch (Throwable e) { /* noop */}
+    }
+
+    return transportObj;
+  }
+
+  private static MappingPlan planFor(Class<?> entityCls) throws NoSuchMethodException, IllegalAccessException {
+    MappingPlan plan = plans.get(entityCls);
+    if (plan != null) return plan;
+
+    // Plans are idempotent, if two threads build the same plan concurrently, either of them wins
+    plan = buildPlan(entityCls);
+    plans.putIfAbsent(entityCls, plan);
+    return plan;
+  }
+
+  private static MappingPlan buildPlan(Class<?> entityCls) throws NoSuchMethodException, IllegalAccessException {
+    TransportObjRef objRefAnnotation = entityCls.getAnnotation(TransportObjRef.class);
+    if (objRefAnnotation == null) {
+      throw new RuntimeException("An entity must be associated with corresponding transport object. Entity: " + entityCls);
+    }
+    Class<? extends ResponseBase> transportCls = objRefAnnotation.cls();
+    MethodHandle constructor = LOOKUP.findConstructor(transportCls, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+
+    List<PropertyCopier> copiers = new ArrayList<>();
+    for (Field f : getAllFieldsForEntityClass(entityCls)) {
+      boolean isEntityRef = EntityBase.class.isAssignableFrom(f.getType());
+      try {
+        Method getterFromEntity = entityCls.getMethod(Utils.getterMethodNameFromFieldName(f.getName()));
+        Class<?> type = f.getType();
+        if (isEntityRef) {
+          TransportObjRef nestedRef = type.getAnnotation(TransportObjRef.class);
+          if (nestedRef == null) continue;
+          type = nestedRef.cls();
+        }
+        Method setterFromTransport = transportCls.getMethod(Utils.setterMethodNameFromFieldName(f.getName()), type);
+
+        copiers.add(new PropertyCopier(
+          LOOKUP.unreflect(getterFromEntity).asType(GETTER_TYPE),
+          LOOKUP.unreflect(setterFromTransport).asType(SETTER_TYPE),
+          isEntityRef
+        ));
+      } catch (NoSuchMethodException | IllegalAccessException e) { /* noop */}
+    }
+
+    return new MappingPlan(constructor, List.copyOf(copiers));
+  }
+
+  private static List<Field> getAllFieldsForEntityClass(Class<?> cls) {
+    List<Field> fields = new ArrayList<>();
+    for (Class<?> c = cls; c != null && EntityBase.class.isAssignableFrom(c); c = c.getSuperclass()) {
+      fields.addAll(List.of(c.getDeclaredFields()));
+    }
+    return fields;
+  }
+
+  private record MappingPlan(MethodHandle constructor, List<PropertyCopier> copiers) {
+  }
+
+  private record PropertyCopier(MethodHandle getter, MethodHandle setter, boolean isEntityRef) {
+  }
+}
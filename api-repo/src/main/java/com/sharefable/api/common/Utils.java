@@ -10,14 +10,17 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.javatuples.Pair;
 import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -26,7 +29,6 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public interface Utils {
   ObjectMapper objectMapper = new ObjectMapper();
@@ -103,43 +105,9 @@ public interface Utils {
     return "set" + StringUtils.capitalize(fieldName);
   }
 
-  private static Field[] getAllFieldsForEntityClass(Class<?> cls) {
-    boolean isEntityBase = EntityBase.class.isAssignableFrom(cls);
-    if (!isEntityBase) {
-      return new Field[]{};
-    }
-    Field[] declaredFields = cls.getDeclaredFields();
-    return ArrayUtils.addAll(declaredFields, getAllFieldsForEntityClass(cls.getSuperclass()));
-  }
-
   static <K extends EntityBase> ResponseBase fromEntityToTransportObject(K entity)
     throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
-    TransportObjRef objRefAnnotation = entity.getClass().getAnnotation(TransportObjRef.class);
-    if (objRefAnnotation == null) {
-      throw new RuntimeException("An entity must be associated with corresponding transport object. Entity: " + entity.getClass());
-    }
-    Class<? extends ResponseBase> transportCls = objRefAnnotation.cls();
-    ResponseBase transportObj = transportCls.getDeclaredConstructor().newInstance();
-
-    Field[] allFieldsForEntityClass = getAllFieldsForEntityClass(entity.getClass());
-    for (Field f : allFieldsForEntityClass) {
-      boolean isEntityBase = EntityBase.class.isAssignableFrom(f.getType());
-      try {
-        Method getterFromEntity = entity.getClass().getMethod(getterMethodNameFromFieldName(f.getName()));
-        Object valueFromEntity = getterFromEntity.invoke(entity);
-        Class<?> type = f.getType();
-
-        if (isEntityBase) {
-          valueFromEntity = fromEntityToTransportObject((EntityBase) valueFromEntity);
-          type = type.getAnnotation(TransportObjRef.class).cls();
-        }
-
-        Method setterFromTransport = transportCls.getMethod(setterMethodNameFromFieldName(f.getName()), type);
-        setterFromTransport.invoke(transportObj, valueFromEntity);
-      } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) { /* noop */}
-    }
-
-    return transportObj;
+    return TransportObjMapper.map(entity);
   }
 
   static String normalizeWhitespace(String str) {
@@ -155,23 +123,42 @@ public interface Utils {
     return screen.getParentScreenId() == 0;
   }
 
+  // Prefix under which the immutable files of a screen (data file, image) are kept, see Screen.blobPrefixHash
+  static String blobPrefixHashOf(Screen screen) {
+    return screen.getBlobPrefixHash() != null ? screen.getBlobPrefixHash() : screen.getAssetPrefixHash();
+  }
+
   @SafeVarargs
   static <T> List<T> runInParallel(Callable<T>... callables) throws Exception {
-    List<Callable<T>> list = Arrays.asList(callables);
-    int noOfThread = Math.min(list.size(), Runtime.getRuntime().availableProcessors());
-    ExecutorService execService = Executors.newFixedThreadPool(noOfThread);
+    return runInParallel(IoExecutor.S3, callables);
+  }
+
+  @SafeVarargs
+  static <T> List<T> runInParallel(IoExecutor executor, Callable<T>... callables) throws Exception {
+    return executor.invokeAll(Arrays.asList(callables));
+  }
+
+  // Runs the action once the current transaction commits, or right away when there is no transaction
+  static void runAfterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
 
+  static String sha256Hex(String str) {
     try {
-      List<Future<T>> futures = execService.invokeAll(list);
-      return futures.stream().map(f -> {
-        try {
-          return f.get();
-        } catch (InterruptedException | ExecutionException e) {
-          throw new RuntimeException(e);
-        }
-      }).collect(Collectors.toList());
-    } finally {
-      execService.shutdown();
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(str.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      // SHA-256 is guaranteed to be present in every jvm
+      throw new IllegalStateException(e);
     }
   }
 
@@ -0,0 +1,19 @@
+package com.sharefable.api.config;
+
+import com.sharefable.api.common.IoExecutor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+
+import java.util.concurrent.Executor;
+
+/*
+ * @Async methods are outbound calls (slack, chargebee etc.), they run on the bounded http executor so that org context
+ * and sentry scope travel with them.
+ */
+@Configuration
+public class AsyncConfig implements AsyncConfigurer {
+  @Override
+  public Executor getAsyncExecutor() {
+    return IoExecutor.HTTP;
+  }
+}
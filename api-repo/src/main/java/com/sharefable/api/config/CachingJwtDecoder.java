@@ -0,0 +1,55 @@
+package com.sharefable.api.config;
+
+import com.sharefable.api.common.ExpiringLruCache;
+import com.sharefable.api.common.StatsSource;
+import com.sharefable.api.common.Utils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/*
+ * Keeps already verified tokens around till they expire so that signature verification and validators are run once per
+ * token and not once per request. The key is the digest of the raw token as it is received (including the `orgId:`
+ * prefix).
+ */
+@Slf4j
+public class CachingJwtDecoder implements JwtDecoder, StatsSource {
+  private static final int MAX_SIZE = 20_000;
+  // Used only when the token does not carry an exp claim
+  private static final Duration FALLBACK_TTL = Duration.ofMinutes(5);
+
+  private final JwtDecoder delegate;
+  private final ExpiringLruCache<String, Jwt> cache = new ExpiringLruCache<>(MAX_SIZE, FALLBACK_TTL);
+
+  public CachingJwtDecoder(JwtDecoder delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    String key = Utils.sha256Hex(token);
+    Optional<Jwt> cachedJwt = cache.get(key);
+    if (cachedJwt.isPresent()) return cachedJwt.get();
+
+    Jwt jwt = delegate.decode(token);
+    Instant expiresAt = jwt.getExpiresAt();
+    if (expiresAt == null) cache.put(key, jwt);
+    else cache.put(key, jwt, expiresAt.toEpochMilli());
+    return jwt;
+  }
+
+  @Override
+  public String statsName() {
+    return "jwtCache";
+  }
+
+  @Override
+  public ExpiringLruCache.Stats stats() {
+    return cache.stats();
+  }
+}
@@ -1,5 +1,6 @@
 package com.sharefable.api.config;
 
+import io.sentry.Sentry;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -14,8 +15,23 @@ public class CustomBearerTokenResolver implements BearerTokenResolver {
   public String resolve(HttpServletRequest request) {
     String bearerToken = request.getHeader(AUTHORIZATION_HEADER);
     if (!StringUtils.isBlank(bearerToken)) {
-      return StringUtils.substring(bearerToken, BEARER_TOKEN_PREFIX.length());
+      String token = StringUtils.substring(bearerToken, BEARER_TOKEN_PREFIX.length());
+      setOrgContext(token);
+      return token;
     }
     return null;
   }
+
+  // Token is sent as `orgId:token` when the user has selected an org
+  private static void setOrgContext(String token) {
+    try {
+      String[] parts = token.split(":");
+      if (parts.length == 2) {
+        OrgContext.setCurrentOrgId(Long.valueOf(parts[0]));
+      }
+    } catch (Exception e) {
+      log.error("Something went wrong while splitting token", e);
+      Sentry.captureException(e);
+    }
+  }
 }
\ No newline at end of file
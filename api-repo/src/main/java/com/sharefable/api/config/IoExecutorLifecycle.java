@@ -0,0 +1,40 @@
+package com.sharefable.api.config;
+
+import com.sharefable.api.common.IoExecutor;
+import com.sharefable.api.common.StatsSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/*
+ * Shuts the IoExecutor pools down with the application context. Beans that submit work on shutdown (e.g. the flush of
+ * EditFileWriter) declare @DependsOn on this bean so that they are destroyed, and their work is done, before the
+ * pools go away. Publish jobs queue manifests and both fan out on S3, hence S3 is shut down last.
+ */
+@Slf4j
+@Component(IoExecutorLifecycle.BEAN_NAME)
+public class IoExecutorLifecycle implements StatsSource {
+  public static final String BEAN_NAME = "ioExecutorLifecycle";
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    for (IoExecutor executor : List.of(IoExecutor.PUBLISH, IoExecutor.MANIFEST, IoExecutor.HTTP, IoExecutor.S3)) {
+      log.info("Shutting down {}", executor.stats());
+      executor.shutdown(SHUTDOWN_TIMEOUT);
+    }
+  }
+
+  @Override
+  public String statsName() {
+    return "ioExecutors";
+  }
+
+  @Override
+  public List<IoExecutor.Stats> stats() {
+    return List.of(IoExecutor.S3.stats(), IoExecutor.HTTP.stats(), IoExecutor.PUBLISH.stats(), IoExecutor.MANIFEST.stats());
+  }
+}
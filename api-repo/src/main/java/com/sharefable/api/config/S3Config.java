@@ -1,10 +1,14 @@
 package com.sharefable.api.config;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.sharefable.api.common.AssetFilePath;
 import com.sharefable.api.common.VersionedFile;
+import com.sharefable.api.service.storage.LocalObjectStore;
+import com.sharefable.api.service.storage.ObjectStore;
+import com.sharefable.api.service.storage.S3ObjectStore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,11 +16,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import java.nio.file.Path;
+
 @Configuration
 @ConfigurationProperties(prefix = "com.sharefable.api.s3")
 @NoArgsConstructor
@@ -37,6 +44,7 @@ public class S3Config {
   private static final String PUBLISHED_LOADER_FILE_NAME = "%d_loader.json";
   private static final String PUBLISHED_TOUR_ENTITY_FILE_NAME = "0_d_data.json";
   private static final String MANIFEST_FILE = "manifest.json";
+  private static final String PUBLISH_MANIFEST_FILE_NAME = "%d_pub_manifest.json";
   private static final String PATH_FOR_COMMON_ASSET = "/cmn";
   private static final String PATH_FOR_PROXY_ASSET = "/proxy_asset";
   private static final String PATH_FOR_PUBLISHED_TOUR_ASSET = "/ptour/%s";
@@ -55,6 +63,20 @@ public class S3Config {
   private String pvtAssetBucketName;
   private String pvtAssetBucketRegion;
   private String cdn;
+  // json files smaller than this are stored as is, the rest gzip compressed
+  private int compressionThresholdBytes = 1024;
+  private int compressionLevel = 6;
+  // s3 or local. local keeps the objects on the disk under localStoreRoot, see LocalObjectStore
+  private String store = "s3";
+  private String localStoreRoot;
+  private String localStorePublicUrl;
+  // Key the upload urls of the local store are signed with
+  private String localStoreSigningKey;
+  // Enough for every thread of IoExecutor.S3 and the request threads to get a connection, the sdk's default is 50
+  private int maxConnections = 128;
+  // Objects at least this big are uploaded in parts, the parts are uploaded in parallel
+  private long multipartThresholdBytes = 16 * 1024 * 1024;
+  private long multipartPartSizeBytes = 8 * 1024 * 1024;
 
   @Autowired
   private AppConfig appConfig;
@@ -80,7 +102,8 @@ public class S3Config {
       //      cache policy. This is just a workaround so that we don't test the rest of the system.
       //      In a nutshell, all dataset cache policy is set as Cached. While template file gets created for dataset the cache
       //      policy is overwritten as NoCache. For published dataset cache policy remains Cache
-      new FileConfig(DATASET_FILE_NAME, DATA_FILE_CACHE_POLICY.Cache, String::format));
+      new FileConfig(DATASET_FILE_NAME, DATA_FILE_CACHE_POLICY.Cache, String::format),
+      new FileConfig(PUBLISH_MANIFEST_FILE_NAME, DATA_FILE_CACHE_POLICY.NoCache, String::format));
   }
 
   public static String getCachePolicyStr(DATA_FILE_CACHE_POLICY policy) {
@@ -169,30 +192,44 @@ public class S3Config {
     return assetFilePath;
   }
 
+  @Bean
+  @ConditionalOnProperty(prefix = "com.sharefable.api.s3", name = "store", havingValue = "s3", matchIfMissing = true)
+  ObjectStore s3ObjectStore(AmazonS3 s3, @Qualifier("pvt") AmazonS3 pvtClient) {
+    return new S3ObjectStore(s3, pvtClient, multipartThresholdBytes, multipartPartSizeBytes);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "com.sharefable.api.s3", name = "store", havingValue = "local")
+  LocalObjectStore localObjectStore() {
+    log.info("Storing objects on the local disk at {}", localStoreRoot);
+    return new LocalObjectStore(Path.of(localStoreRoot), localStorePublicUrl, localStoreSigningKey);
+  }
+
   @Bean
   @Primary
+  @ConditionalOnProperty(prefix = "com.sharefable.api.s3", name = "store", havingValue = "s3", matchIfMissing = true)
   AmazonS3 s3Client() {
-    String endpoint = System.getenv("AWS_S3_ENDPOINT");
-    if (endpoint != null && !endpoint.isBlank()) {
-      return AmazonS3ClientBuilder.standard()
-        .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region))
-        .withPathStyleAccessEnabled(true)
-        .build();
-    }
-    return AmazonS3ClientBuilder.standard().withRegion(region).build();
+    return buildS3Client(region);
   }
 
   @Bean
   @Qualifier("pvt")
+  @ConditionalOnProperty(prefix = "com.sharefable.api.s3", name = "store", havingValue = "s3", matchIfMissing = true)
   AmazonS3 pvtS3Client() {
+    return buildS3Client(pvtAssetBucketRegion);
+  }
+
+  private AmazonS3 buildS3Client(String clientRegion) {
+    AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+      .withClientConfiguration(new ClientConfiguration().withMaxConnections(maxConnections));
     String endpoint = System.getenv("AWS_S3_ENDPOINT");
     if (endpoint != null && !endpoint.isBlank()) {
-      return AmazonS3ClientBuilder.standard()
-        .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, pvtAssetBucketRegion))
+      return builder
+        .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, clientRegion))
         .withPathStyleAccessEnabled(true)
         .build();
     }
-    return AmazonS3ClientBuilder.standard().withRegion(pvtAssetBucketRegion).build();
+    return builder.withRegion(clientRegion).build();
   }
 
   public enum AssetType {
@@ -279,6 +316,7 @@ public class S3Config {
     FileConfig manifestFile,
     FileConfig leadActivityDataFile,
     FileConfig demoHubDataFile,
-    FileConfig datasetFile) {
+    FileConfig datasetFile,
+    FileConfig publishManifestFile) {
   }
 }
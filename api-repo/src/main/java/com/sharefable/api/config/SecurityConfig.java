@@ -2,7 +2,6 @@ package com.sharefable.api.config;
 
 import com.sharefable.api.auth.AudienceValidator;
 import com.sharefable.Routes;
-import io.sentry.Sentry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -32,26 +31,22 @@ public class SecurityConfig {
   @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
   private String issuer;
 
+  // A bean of its own (and not wrapped) so that its cache stats get logged, the org prefix is read by
+  // CustomBearerTokenResolver
   @Bean
-  JwtDecoder jwtDecoder() {
+  CachingJwtDecoder jwtDecoder() {
     NimbusJwtDecoder jwtDecoder = JwtDecoders.fromOidcIssuerLocation(issuer);
     OAuth2TokenValidator<Jwt> audienceValidator = new AudienceValidator(audience);
     OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuer);
     OAuth2TokenValidator<Jwt> withAudience = new DelegatingOAuth2TokenValidator<>(withIssuer, audienceValidator);
     jwtDecoder.setJwtValidator(withAudience);
-    return token -> {
-      try {
-        String[] parts = token.split(":");
-        if (parts.length == 2) {
-          token = parts[1];
-          OrgContext.setCurrentOrgId(Long.valueOf(parts[0]));
-        }
-      } catch (Exception e) {
-        log.error("Something went wrong while splitting token", e);
-        Sentry.captureException(e);
-      }
-      return jwtDecoder.decode(token);
-    };
+    // Cache is keyed by the raw token (with the org prefix) hence the prefix is stripped only before verification
+    return new CachingJwtDecoder(rawToken -> jwtDecoder.decode(withoutOrgPrefix(rawToken)));
+  }
+
+  private static String withoutOrgPrefix(String token) {
+    String[] parts = token.split(":");
+    return parts.length == 2 ? parts[1] : token;
   }
 
   @Bean
@@ -1,13 +1,16 @@
 package com.sharefable.api.controller.v1;
 
 import com.sharefable.Routes;
+import com.sharefable.api.auth.AuthUser;
 import com.sharefable.api.common.ApiResp;
 import com.sharefable.api.entity.DemoEntity;
 import com.sharefable.api.entity.User;
 import com.sharefable.api.service.EntityService;
+import com.sharefable.api.service.PublishJobService;
 import com.sharefable.api.transport.req.ReqLockUnlockDemo;
 import com.sharefable.api.transport.resp.RespCommonConfig;
 import com.sharefable.api.transport.resp.RespDemoEntity;
+import com.sharefable.api.transport.resp.RespRepublishJob;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.javatuples.Pair;
@@ -23,15 +26,29 @@ import java.util.List;
 public class DemoEntityController {
   private final EntityService entityService;
   private final WorkspaceController wsController;
+  private final PublishJobService publishJobService;
 
   @RequestMapping(value = Routes.REPUBLISH_DATA_FILE_ONLY, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
   public ApiResp<Pair<Boolean, RespDemoEntity>> republishDataFile(@PathVariable("rid") String rid) {
     RespCommonConfig commonConfig = wsController.getCommonConfig().getData();
-    Pair<Boolean, RespDemoEntity> resp = entityService.refreshAndPublishEntityDataFile(rid, commonConfig);
+    Pair<Boolean, RespDemoEntity> resp = publishJobService.republishEntityNow(rid, commonConfig);
     return ApiResp.<Pair<Boolean, RespDemoEntity>>builder().status(ApiResp.ResponseStatus.Success)
       .data(resp).build();
   }
 
+  @RequestMapping(value = Routes.REPUBLISH_ORG_JOB, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespRepublishJob> submitRepublishOrgJob(@AuthUser User user) {
+    RespCommonConfig commonConfig = wsController.getCommonConfig().getData();
+    RespRepublishJob resp = publishJobService.submitOrgRepublish(user, commonConfig);
+    return ApiResp.<RespRepublishJob>builder().data(resp).build();
+  }
+
+  @RequestMapping(value = Routes.REPUBLISH_ORG_JOB, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespRepublishJob> getRepublishOrgJob(@RequestParam("id") Long jobId, @AuthUser User user) {
+    RespRepublishJob resp = publishJobService.getRepublishJob(jobId, user);
+    return ApiResp.<RespRepublishJob>builder().data(resp).build();
+  }
+
   public DemoEntity getEntityAfterValidation(String rid, User user) {
     return entityService.getEntityByRIdWithAuthValidation(DemoEntity.class, rid, user);
   }
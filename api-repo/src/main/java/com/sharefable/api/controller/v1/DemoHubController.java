@@ -6,6 +6,7 @@ import com.sharefable.api.common.TopLevelEntityType;
 import com.sharefable.Routes;
 import com.sharefable.api.entity.User;
 import com.sharefable.api.service.EntityService;
+import com.sharefable.api.service.PublishJobService;
 import com.sharefable.api.transport.TourDeleted;
 import com.sharefable.api.transport.req.ReqDemoHubPropUpdate;
 import com.sharefable.api.transport.req.ReqDemoHubRid;
@@ -13,13 +14,17 @@ import com.sharefable.api.transport.req.ReqNewTour;
 import com.sharefable.api.transport.req.ReqRenameGeneric;
 import com.sharefable.api.transport.resp.RespCommonConfig;
 import com.sharefable.api.transport.resp.RespDemoEntity;
+import com.sharefable.api.transport.resp.RespEntitySummary;
+import com.sharefable.api.transport.resp.RespPage;
 import com.sharefable.api.transport.resp.RespUploadUrl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(Routes.API_V1)
@@ -28,6 +33,7 @@ import java.util.List;
 public class DemoHubController {
   private final EntityService entityService;
   private final WorkspaceController wsController;
+  private final PublishJobService publishJobService;
 
 
   @RequestMapping(value = Routes.CREATE_DEMO_HUB, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -50,11 +56,20 @@ public class DemoHubController {
   }
 
   @RequestMapping(value = Routes.GET_ALL_DEMO_HUB, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-  public ApiResp<List<RespDemoEntity>> getAllDemoHub(@AuthUser User user) {
+  public ApiResp<List<RespDemoEntity>> getAllDemoHub(@AuthUser User user, WebRequest webRequest) {
+    if (webRequest.checkNotModified(entityService.getCatalogueETagForOrg(user.getBelongsToOrg(), TopLevelEntityType.DEMO_HUB))) return null;
     List<RespDemoEntity> tour = entityService.getAllEntityForOrg(user.getBelongsToOrg(), TourDeleted.ACTIVE, TopLevelEntityType.DEMO_HUB);
     return ApiResp.<List<RespDemoEntity>>builder().status(ApiResp.ResponseStatus.Success).data(tour).build();
   }
 
+  @RequestMapping(value = Routes.GET_DEMO_HUBS_PAGE, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPage<RespEntitySummary>> getDemoHubsPage(@RequestParam("c") Optional<String> cursor,
+                                                              @RequestParam("s") Optional<Integer> size,
+                                                              @AuthUser User user) {
+    RespPage<RespEntitySummary> page = entityService.getEntitySummaryPageForOrg(user.getBelongsToOrg(), TopLevelEntityType.DEMO_HUB, cursor, size);
+    return ApiResp.<RespPage<RespEntitySummary>>builder().status(ApiResp.ResponseStatus.Success).data(page).build();
+  }
+
   @RequestMapping(value = Routes.GET_DEMO_HUB, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
   public ApiResp<RespDemoEntity> getDemoHub(@RequestParam("rid") String rid) {
     RespDemoEntity tour = entityService.getEntityByRid(rid, false, false, TopLevelEntityType.DEMO_HUB);
@@ -62,15 +77,15 @@ public class DemoHubController {
   }
 
   @RequestMapping(value = Routes.DELETE_DEMO_HUB, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
-  public ApiResp<List<RespDemoEntity>> deleteDemoHub(@RequestBody ReqDemoHubRid body, @AuthUser User user) {
-    List<RespDemoEntity> respDemoEntities = entityService.removeEntity(body.rid(), user, TopLevelEntityType.DEMO_HUB);
-    return ApiResp.<List<RespDemoEntity>>builder().status(ApiResp.ResponseStatus.Success).data(respDemoEntities).build();
+  public ApiResp<RespDemoEntity> deleteDemoHub(@RequestBody ReqDemoHubRid body, @AuthUser User user) {
+    RespDemoEntity removedDemoHub = entityService.removeEntity(body.rid(), user);
+    return ApiResp.<RespDemoEntity>builder().status(ApiResp.ResponseStatus.Success).data(removedDemoHub).build();
   }
 
   @RequestMapping(value = Routes.PUBLISH_DEMO_HUB, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
   public ApiResp<RespDemoEntity> publishDemoHub(@RequestBody ReqDemoHubRid body, @AuthUser User user) {
     RespCommonConfig commonConfig = wsController.getCommonConfig().getData();
-    RespDemoEntity respDemoEntity = entityService.publishEntity(body.rid(), user, commonConfig, TopLevelEntityType.DEMO_HUB);
+    RespDemoEntity respDemoEntity = publishJobService.publishDemoHubNow(body.rid(), user, commonConfig);
     return ApiResp.<RespDemoEntity>builder().status(ApiResp.ResponseStatus.Success).data(respDemoEntity).build();
   }
 
@@ -0,0 +1,39 @@
+package com.sharefable.api.controller.v1;
+
+import com.sharefable.Routes;
+import com.sharefable.api.service.storage.LocalObjectStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/*
+ * Lets the file server in front of the local object store check uploads, e.g. for nginx
+ *   auth_request /v1/lstore/uploadauth;
+ * with X-Original-URI set to $request_uri and X-Original-Method to $request_method in the auth location.
+ */
+@RestController
+@RequestMapping(Routes.API_V1)
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "com.sharefable.api.s3", name = "store", havingValue = "local")
+public class LocalStoreController {
+  private final LocalObjectStore localObjectStore;
+
+  @RequestMapping(value = Routes.LOCAL_STORE_UPLOAD_AUTH, method = RequestMethod.GET)
+  public ResponseEntity<Void> authorizeUpload(@RequestHeader("X-Original-URI") String uri,
+                                              @RequestHeader("X-Original-Method") String method,
+                                              @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType) {
+    if ("PUT".equals(method) && localObjectStore.isValidUploadUrl(uri, contentType)) {
+      return ResponseEntity.noContent().build();
+    }
+    log.warn("Rejected {} of {} to the local object store", method, uri);
+    return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+  }
+}
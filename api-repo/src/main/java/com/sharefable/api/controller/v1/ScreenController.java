@@ -6,11 +6,15 @@ import com.sharefable.Routes;
 import com.sharefable.api.entity.User;
 import com.sharefable.api.service.ScreenService;
 import com.sharefable.api.transport.req.*;
+import com.sharefable.api.transport.resp.RespPage;
+import com.sharefable.api.transport.resp.RespPatchedEdit;
 import com.sharefable.api.transport.resp.RespScreen;
+import com.sharefable.api.transport.resp.RespScreenSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -56,12 +60,21 @@ public class ScreenController {
 
   @RequestMapping(value = Routes.GET_ALL_SCREENS, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
   //@PreAuthorize("hasAuthority(@Perm.READ_SCREEN)")
-  public ApiResp<RespScreen[]> getAllScreensForOrg(@AuthUser User user) {
+  public ApiResp<RespScreen[]> getAllScreensForOrg(@AuthUser User user, WebRequest webRequest) {
     Long orgId = user.getBelongsToOrg();
+    if (webRequest.checkNotModified(screenService.getCatalogueETagForOrg(orgId))) return null;
     List<RespScreen> allScreens = screenService.getAllScreensForOrg(orgId);
     return ApiResp.<RespScreen[]>builder().status(ApiResp.ResponseStatus.Success).data(allScreens.toArray(RespScreen[]::new)).build();
   }
 
+  @RequestMapping(value = Routes.GET_SCREENS_PAGE, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPage<RespScreenSummary>> getScreensPageForOrg(@RequestParam("c") Optional<String> cursor,
+                                                                  @RequestParam("s") Optional<Integer> size,
+                                                                  @AuthUser User user) {
+    RespPage<RespScreenSummary> page = screenService.getScreenSummaryPageForOrg(user.getBelongsToOrg(), cursor, size);
+    return ApiResp.<RespPage<RespScreenSummary>>builder().status(ApiResp.ResponseStatus.Success).data(page).build();
+  }
+
   @RequestMapping(value = Routes.GET_SCREEN, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
   public ApiResp<RespScreen> getScreenByRId(@RequestParam("rid") String rId) {
     Optional<RespScreen> maybeScreen = screenService.getScreenByRid(rId);
@@ -79,6 +92,12 @@ public class ScreenController {
     return ApiResp.<RespScreen>builder().data(resp).build();
   }
 
+  @RequestMapping(value = Routes.PATCH_EL_EDIT, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPatchedEdit> patchEdit(@RequestBody ReqPatchEdit body, @AuthUser User user) {
+    RespPatchedEdit resp = screenService.patchEditForScreen(body, user);
+    return ApiResp.<RespPatchedEdit>builder().data(resp).build();
+  }
+
   @RequestMapping(value = Routes.RENAME_SCREEN, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
   //@PreAuthorize("hasAuthority(@Perm.WRITE_TOUR)")
   public ApiResp<RespScreen> renameScreen(@RequestBody ReqRenameGeneric body, @AuthUser User user) {
@@ -5,9 +5,9 @@ import com.sharefable.api.auth.AuthUser;
 import com.sharefable.api.common.ApiResp;
 import com.sharefable.api.common.TopLevelEntityType;
 import com.sharefable.api.config.AppSettings;
-import com.sharefable.api.entity.ApiKey;
 import com.sharefable.api.entity.User;
 import com.sharefable.api.service.EntityService;
+import com.sharefable.api.service.PublishJobService;
 import com.sharefable.api.service.WorkspaceService;
 import com.sharefable.api.transport.EditTour;
 import com.sharefable.api.transport.OnboardingTourForPrev;
@@ -16,12 +16,17 @@ import com.sharefable.api.transport.req.*;
 import com.sharefable.api.transport.resp.RespCommonConfig;
 import com.sharefable.api.transport.resp.RespDemoEntity;
 import com.sharefable.api.transport.resp.RespDemoEntityWithSubEntities;
+import com.sharefable.api.transport.resp.RespEntitySummary;
+import com.sharefable.api.transport.resp.RespPage;
+import com.sharefable.api.transport.resp.RespPatchedEdit;
+import com.sharefable.api.transport.resp.RespPublishJob;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -36,15 +41,25 @@ public class TourController {
   private final WorkspaceController wsController;
   private final WorkspaceService wsService;
   private final AppSettings appSettings;
+  private final PublishJobService publishJobService;
 
   @RequestMapping(value = Routes.GET_ALL_TOURS, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
   //@PreAuthorize("hasAuthority(@Perm.READ_TOUR)")
-  public ApiResp<RespDemoEntity[]> getAllTours(@AuthUser User user) {
+  public ApiResp<RespDemoEntity[]> getAllTours(@AuthUser User user, WebRequest webRequest) {
     Long orgId = user.getBelongsToOrg();
+    if (webRequest.checkNotModified(entityService.getCatalogueETagForOrg(orgId, TopLevelEntityType.TOUR))) return null;
     List<RespDemoEntity> allTours = entityService.getAllEntityForOrg(orgId, TourDeleted.ACTIVE, TopLevelEntityType.TOUR);
     return ApiResp.<RespDemoEntity[]>builder().status(ApiResp.ResponseStatus.Success).data(allTours.toArray(RespDemoEntity[]::new)).build();
   }
 
+  @RequestMapping(value = Routes.GET_TOURS_PAGE, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPage<RespEntitySummary>> getToursPage(@RequestParam("c") Optional<String> cursor,
+                                                           @RequestParam("s") Optional<Integer> size,
+                                                           @AuthUser User user) {
+    RespPage<RespEntitySummary> page = entityService.getEntitySummaryPageForOrg(user.getBelongsToOrg(), TopLevelEntityType.TOUR, cursor, size);
+    return ApiResp.<RespPage<RespEntitySummary>>builder().status(ApiResp.ResponseStatus.Success).data(page).build();
+  }
+
   @RequestMapping(value = Routes.NEW_TOUR, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
   //@PreAuthorize("hasAuthority(@Perm.WRITE_TOUR)")
   public ApiResp<RespDemoEntity> newTour(@RequestBody ReqNewTour body, @AuthUser User user) {
@@ -86,6 +101,24 @@ public class TourController {
     return ApiResp.<RespDemoEntity>builder().data(resp).build();
   }
 
+  @RequestMapping(value = Routes.PATCH_TOUR_EDIT, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPatchedEdit> patchTourIndexEdit(@RequestBody ReqPatchEdit body, @AuthUser User user) {
+    RespPatchedEdit resp = entityService.patchEditForTour(body, user, EditTour.INDEX);
+    return ApiResp.<RespPatchedEdit>builder().data(resp).build();
+  }
+
+  @RequestMapping(value = Routes.PATCH_TOUR_LOADER_EDIT, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPatchedEdit> patchLoaderEdit(@RequestBody ReqPatchEdit body, @AuthUser User user) {
+    RespPatchedEdit resp = entityService.patchEditForTour(body, user, EditTour.LOADER);
+    return ApiResp.<RespPatchedEdit>builder().data(resp).build();
+  }
+
+  @RequestMapping(value = Routes.PATCH_TOUR_EDIT_FILE, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPatchedEdit> patchGlobalEdit(@RequestBody ReqPatchEdit body, @AuthUser User user) {
+    RespPatchedEdit resp = entityService.patchEditForTour(body, user, EditTour.EDITS);
+    return ApiResp.<RespPatchedEdit>builder().data(resp).build();
+  }
+
   @RequestMapping(value = Routes.RENAME_TOUR, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
   //@PreAuthorize("hasAuthority(@Perm.WRITE_TOUR)")
   public ApiResp<RespDemoEntity> renameTour(@RequestBody ReqRenameGeneric body, @AuthUser User user) {
@@ -105,18 +138,31 @@ public class TourController {
 
   @RequestMapping(value = Routes.DELETE_TOUR, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
   //@PreAuthorize("hasAuthority(@Perm.WRITE_TOUR)")
-  public ApiResp<RespDemoEntity[]> deleteTour(@RequestBody ReqTourRid body, @AuthUser User user) {
-    List<RespDemoEntity> allTours = entityService.removeEntity(body.tourRid(), user, TopLevelEntityType.TOUR);
-    return ApiResp.<RespDemoEntity[]>builder().status(ApiResp.ResponseStatus.Success).data(allTours.toArray(RespDemoEntity[]::new)).build();
+  public ApiResp<RespDemoEntity> deleteTour(@RequestBody ReqTourRid body, @AuthUser User user) {
+    RespDemoEntity removedTour = entityService.removeEntity(body.tourRid(), user);
+    return ApiResp.<RespDemoEntity>builder().status(ApiResp.ResponseStatus.Success).data(removedTour).build();
   }
 
   @RequestMapping(value = Routes.PUBLISH_TOUR, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
   public ApiResp<RespDemoEntity> publishTour(@RequestBody ReqTourRid body, @AuthUser User user) {
     RespCommonConfig commonConfig = wsController.getCommonConfig().getData();
-    RespDemoEntity resp = entityService.publishEntity(body.tourRid(), user, commonConfig, TopLevelEntityType.TOUR);
+    RespDemoEntity resp = publishJobService.publishTourNow(body.tourRid(), user, commonConfig);
     return ApiResp.<RespDemoEntity>builder().status(ApiResp.ResponseStatus.Success).data(resp).build();
   }
 
+  @RequestMapping(value = Routes.PUBLISH_TOUR_JOB, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPublishJob> submitPublishTourJob(@RequestBody ReqTourRid body, @AuthUser User user) {
+    RespCommonConfig commonConfig = wsController.getCommonConfig().getData();
+    RespPublishJob resp = publishJobService.submitTourPublish(body.tourRid(), user, commonConfig);
+    return ApiResp.<RespPublishJob>builder().data(resp).build();
+  }
+
+  @RequestMapping(value = Routes.PUBLISH_TOUR_JOB, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPublishJob> getPublishTourJob(@RequestParam("id") Long jobId, @AuthUser User user) {
+    RespPublishJob resp = publishJobService.getPublishJob(jobId, user);
+    return ApiResp.<RespPublishJob>builder().data(resp).build();
+  }
+
   @RequestMapping(value = Routes.PUBLISH_TOUR_INTERNAL, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
   public ApiResp<RespDemoEntity> publishTour(@RequestBody ReqTourRid body) {
     if (!appSettings.isMigrationFlatSet()) {
@@ -124,7 +170,7 @@ public class TourController {
       throw new ResponseStatusException(HttpStatusCode.valueOf(404));
     }
     RespCommonConfig commonConfig = wsController.getCommonConfig().getData();
-    RespDemoEntity resp = entityService.publishEntity(body, commonConfig, TopLevelEntityType.TOUR);
+    RespDemoEntity resp = publishJobService.publishTourInternal(body.tourRid(), commonConfig);
     return ApiResp.<RespDemoEntity>builder().status(ApiResp.ResponseStatus.Success).data(resp).build();
   }
 
@@ -154,17 +200,30 @@ public class TourController {
 
   @RequestMapping(value = Routes.GET_ALL_TOURS_BY_API_KEY, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
   public ApiResp<List<RespDemoEntity>> getAllTours(@RequestHeader(name = "X-API-KEY") String apiKey) {
-    ApiKey key = wsService.getApiKey(apiKey);
+    Optional<Long> orgId = wsService.getOrgIdForApiKey(apiKey);
     log.info("GET_ALL_TOURS_API_KEY api key {}", apiKey);
-    if (key == null) {
+    if (orgId.isEmpty()) {
       log.error("Can't find api key {}", apiKey);
       throw new ResponseStatusException(HttpStatusCode.valueOf(404));
     }
-    List<RespDemoEntity> allTours = entityService.getAllEntityForOrg(key.getOrg().getId(), TourDeleted.ACTIVE, TopLevelEntityType.TOUR);
-    log.info("GET_ALL_TOURS_API_KEY  orgId {} len {}", key.getOrg().getId(), allTours.size());
+    List<RespDemoEntity> allTours = entityService.getAllEntityForOrg(orgId.get(), TourDeleted.ACTIVE, TopLevelEntityType.TOUR);
+    log.info("GET_ALL_TOURS_API_KEY  orgId {} len {}", orgId.get(), allTours.size());
     return ApiResp.<List<RespDemoEntity>>builder().status(ApiResp.ResponseStatus.Success).data(allTours).build();
   }
 
+  @RequestMapping(value = Routes.GET_TOURS_PAGE_BY_API_KEY, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ApiResp<RespPage<RespEntitySummary>> getToursPageByApiKey(@RequestHeader(name = "X-API-KEY") String apiKey,
+                                                                   @RequestParam("c") Optional<String> cursor,
+                                                                   @RequestParam("s") Optional<Integer> size) {
+    Optional<Long> orgId = wsService.getOrgIdForApiKey(apiKey);
+    if (orgId.isEmpty()) {
+      log.error("Can't find api key {}", apiKey);
+      throw new ResponseStatusException(HttpStatusCode.valueOf(404));
+    }
+    RespPage<RespEntitySummary> page = entityService.getEntitySummaryPageForOrg(orgId.get(), TopLevelEntityType.TOUR, cursor, size);
+    return ApiResp.<RespPage<RespEntitySummary>>builder().status(ApiResp.ResponseStatus.Success).data(page).build();
+  }
+
   @RequestMapping(value = Routes.COPY_TOUR_TO_DIFFERENT_ORG, method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
   public ApiResp<List<RespDemoEntityWithSubEntities>> copyToursToDifferentOrg(@RequestBody ReqTransferTour body) {
     if (!appSettings.isMigrationFlatSet()) {
@@ -0,0 +1,26 @@
+package com.sharefable.api.entity;
+
+import com.sharefable.api.common.CacheInvalidationScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+/*
+ * Signal for other nodes to drop what they have cached for an entity / org / user. Rows are short-lived, see
+ * CacheInvalidationService.
+ */
+@Entity
+@Table(name = "cache_invalidation")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Builder
+public class CacheInvalidation extends EntityBase {
+  @Enumerated(value = EnumType.STRING)
+  @Column(nullable = false)
+  private CacheInvalidationScope scope;
+
+  @Column(nullable = false)
+  private Long scopeId;
+}
@@ -44,4 +44,8 @@ public class Org extends EntityBaseWithReadableId {
     inverseJoinColumns = @JoinColumn(name = "user_id"))
   @OrderBy("createdAt ASC")
   private Set<User> users;
+
+  // Only ever bumped in db, see CatalogueVersionService
+  @Column(nullable = false, insertable = false, updatable = false)
+  private Long catalogueVersion;
 }
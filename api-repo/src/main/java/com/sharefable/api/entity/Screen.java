@@ -24,6 +24,10 @@ public class Screen extends EntityBaseWithOwnership {
   @Column(nullable = false)
   private String assetPrefixHash;
 
+  // Prefix of the immutable screen files (data file, image) when they are shared with the screen this one is cloned
+  // from. Files that are written per screen (edits) are always under assetPrefixHash.
+  private String blobPrefixHash;
+
   @Column(nullable = false)
   private String displayName;
 
@@ -1,6 +1,9 @@
 package com.sharefable.api.repo;
 
+import com.sharefable.api.common.ApiKeyOwner;
+import com.sharefable.api.common.RowSetVersion;
 import com.sharefable.api.entity.ApiKey;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,7 +13,17 @@ import java.util.List;
 public interface ApiKeyRepo extends CrudRepository<ApiKey, Long> {
   List<ApiKey> getApiKeysByOrgId(Long orgId);
 
-  ApiKey getApiKeyByApiKeyAndActiveIsTrue(String apiKey);
-
   ApiKey getFirstApiKeyByOrgIdAndActiveIsTrueOrderByUpdatedAtDesc(Long orgId);
+
+  @Query("SELECT new com.sharefable.api.common.ApiKeyOwner(a.apiKey, a.org.id, a.active) FROM ApiKey a")
+  List<ApiKeyOwner> findAllApiKeyOwners();
+
+  @Query("SELECT new com.sharefable.api.common.ApiKeyOwner(a.apiKey, a.org.id, a.active) FROM ApiKey a WHERE a.apiKey = :apiKey")
+  List<ApiKeyOwner> findApiKeyOwnersByApiKey(String apiKey);
+
+  @Query("SELECT new com.sharefable.api.common.ApiKeyOwner(a.apiKey, a.org.id, a.active) FROM ApiKey a WHERE a.org.id = :orgId")
+  List<ApiKeyOwner> findApiKeyOwnersByOrgId(Long orgId);
+
+  @Query("SELECT new com.sharefable.api.common.RowSetVersion(COUNT(a), MAX(a.updatedAt)) FROM ApiKey a")
+  RowSetVersion findApiKeyVersion();
 }
@@ -0,0 +1,19 @@
+package com.sharefable.api.repo;
+
+import com.sharefable.api.entity.CacheInvalidation;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepo extends CrudRepository<CacheInvalidation, Long> {
+  List<CacheInvalidation> findAllByCreatedAtGreaterThanEqual(Timestamp since);
+
+  @Modifying
+  @Query("DELETE FROM CacheInvalidation c WHERE c.createdAt < :before")
+  int deleteAllCreatedBefore(Timestamp before);
+}
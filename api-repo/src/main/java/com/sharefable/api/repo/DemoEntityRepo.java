@@ -1,14 +1,22 @@
 package com.sharefable.api.repo;
 
 import com.sharefable.api.common.EntityConfigConfigType;
+import com.sharefable.api.common.EntityOwnership;
 import com.sharefable.api.common.TopLevelEntityType;
 import com.sharefable.api.common.TourWithConfig;
 import com.sharefable.api.entity.DemoEntity;
 import com.sharefable.api.transport.TourDeleted;
+import com.sharefable.api.transport.resp.RespEntitySummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -19,10 +27,51 @@ public interface DemoEntityRepo extends CrudRepository<DemoEntity, Long> {
 
   List<DemoEntity> findAllByBelongsToOrgAndDeleted(Long belongsToOrgId, TourDeleted deleted);
 
+  @Query("SELECT DISTINCT t.belongsToOrg FROM DemoEntity t WHERE t.id IN :ids")
+  List<Long> findOrgIdsByIdIn(Collection<Long> ids);
+
+  @Query("SELECT new com.sharefable.api.transport.resp.RespEntitySummary(t.id, t.rid, t.assetPrefixHash, t.displayName, " +
+    "t.description, t.entityType, t.inProgress, t.lastPublishedDate, t.lastInteractedAt, t.updatedAt, " +
+    "u.id, u.firstName, u.lastName, u.avatar) " +
+    "FROM DemoEntity t JOIN t.createdBy u " +
+    "WHERE t.belongsToOrg = :orgId AND t.deleted = :deleted AND t.entityType = :entityType " +
+    "AND (t.updatedAt < :updatedAt OR (t.updatedAt = :updatedAt AND t.id < :id)) " +
+    "ORDER BY t.updatedAt DESC, t.id DESC")
+  List<RespEntitySummary> findSummaryPageForOrg(Long orgId, TourDeleted deleted, TopLevelEntityType entityType,
+                                                Timestamp updatedAt, Long id, PageRequest pageRequest);
+
   List<DemoEntity> findAllByBelongsToOrgAndDeletedAndLastPublishedDateNotNull(Long orgId, TourDeleted deleted);
 
+  @Query("SELECT DISTINCT t FROM DemoEntity t LEFT JOIN FETCH t.screens " +
+    "WHERE t.belongsToOrg = :orgId AND t.deleted = :deleted AND t.lastPublishedDate IS NOT NULL")
+  List<DemoEntity> findAllPublishedWithScreensForOrg(Long orgId, TourDeleted deleted);
+
+  // Flags of the info json are compared / set in db, a missing flag is false. Rows are locked till the update is done.
+  @Query(value = "SELECT t.rid FROM tour t WHERE t.belongs_to_org = :orgId AND t.deleted = :deleted " +
+    "AND COALESCE(JSON_EXTRACT(t.info, :jsonPath), CAST('false' AS JSON)) <> CAST(:jsonValue AS JSON) FOR UPDATE",
+    nativeQuery = true)
+  List<String> findRidsOfOrgWithInfoFlagOtherThan(Long orgId, int deleted, String jsonPath, String jsonValue);
+
+  @Modifying
+  @Query(value = "UPDATE tour t SET t.info = JSON_SET(COALESCE(t.info, JSON_OBJECT()), :jsonPath, CAST(:jsonValue AS JSON)), " +
+    "t.updated_at = :at WHERE t.rid IN :rids", nativeQuery = true)
+  int updateInfoFlagByRids(List<String> rids, String jsonPath, String jsonValue, Timestamp at);
+
   Optional<DemoEntity> findByRid(String rid);
 
+  // Locks the row till the end of the transaction, concurrent publishes of the entity are serialized on it
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT t FROM DemoEntity t WHERE t.id = :id")
+  Optional<DemoEntity> findByIdForUpdate(Long id);
+
+  @Query("SELECT new com.sharefable.api.common.EntityOwnership(t.id, t.belongsToOrg, t.deleted, t.entityType, t.assetPrefixHash) " +
+    "FROM DemoEntity t WHERE t.rid = :rid")
+  Optional<EntityOwnership> findOwnershipByRid(String rid);
+
+  @Modifying
+  @Query("UPDATE DemoEntity t SET t.lastInteractedAt = :at, t.updatedAt = :at WHERE t.id IN :ids")
+  int updateLastInteractedAtIn(List<Long> ids, Timestamp at);
+
   Optional<DemoEntity> findByRidAndEntityType(String rid, TopLevelEntityType type);
 
   Optional<DemoEntity> findByRidAndDeletedEquals(String rid, TourDeleted deleted);
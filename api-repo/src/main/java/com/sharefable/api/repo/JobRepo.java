@@ -1,13 +1,29 @@
 package com.sharefable.api.repo;
 
 import com.sharefable.api.entity.Job;
+import com.sharefable.api.transport.JobProcessingStatus;
 import com.sharefable.api.transport.JobType;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface JobRepo extends CrudRepository<Job, Long> {
     Optional<Job> findFirstByJobTypeAndJobKey(JobType jobType, String jobKey);
+
+    Optional<Job> findByIdAndJobType(Long id, JobType jobType);
+
+    boolean existsByJobTypeAndJobKeyStartingWithAndProcessingStatusIn(JobType jobType, String jobKeyPrefix,
+                                                                      Collection<JobProcessingStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE Job j SET j.processingStatus = :newStatus, j.failureReason = :failureReason, j.updatedAt = :at " +
+        "WHERE j.jobType = :jobType AND j.processingStatus IN :statuses AND j.updatedAt < :before")
+    int updateStatusOfJobsNotUpdatedSince(JobType jobType, Collection<JobProcessingStatus> statuses, Timestamp before,
+                                          JobProcessingStatus newStatus, String failureReason, Timestamp at);
 }
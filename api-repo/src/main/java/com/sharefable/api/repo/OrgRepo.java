@@ -1,9 +1,12 @@
 package com.sharefable.api.repo;
 
 import com.sharefable.api.entity.Org;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
 
@@ -12,4 +15,11 @@ public interface OrgRepo extends CrudRepository<Org, Long> {
   Optional<Org> findFirstByRid(String rId);
 
   Set<Org> findOrgByDomain(String emailDomain);
+
+  @Query("SELECT o.catalogueVersion FROM Org o WHERE o.id = :orgId")
+  Optional<Long> findCatalogueVersion(Long orgId);
+
+  @Modifying
+  @Query("UPDATE Org o SET o.catalogueVersion = o.catalogueVersion + 1 WHERE o.id IN :orgIds")
+  int incrementCatalogueVersion(Collection<Long> orgIds);
 }
@@ -0,0 +1,13 @@
+package com.sharefable.api.repo;
+
+import com.sharefable.api.entity.Screen;
+
+import java.util.List;
+
+public interface ScreenBulkRepo {
+  /*
+   * Inserts new screens with multi row inserts and links them to their demo entities with a single batch on the join
+   * table. Ids (and timestamps) are set on the passed screens; they are not attached to the persistence context.
+   */
+  void insertAll(List<Screen> screens);
+}
@@ -0,0 +1,95 @@
+package com.sharefable.api.repo;
+
+import com.sharefable.api.entity.DemoEntity;
+import com.sharefable.api.entity.Screen;
+import org.javatuples.Pair;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.*;
+
+/*
+ * Screen ids are IDENTITY generated, so hibernate can't batch the inserts and every cloned screen used to cost an insert
+ * for the screen and another one for the join table row. Duplicating a tour inserts all the screens at once here.
+ *
+ * The JdbcTemplate works on the api datasource and takes part in the ongoing jpa transaction.
+ */
+public class ScreenBulkRepoImpl implements ScreenBulkRepo {
+  private static final int INSERT_CHUNK_SIZE = 200;
+  private static final String INSERT_SCREEN_COLS = "INSERT INTO screen (rid, asset_prefix_hash, blob_prefix_hash, created_at, updated_at, " +
+    "display_name, created_by, thumbnail, parent_screen_id, belongs_to_org, url, icon, responsive, type) VALUES ";
+  private static final String INSERT_SCREEN_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_JOIN_ROW = "INSERT INTO screens_tours_join (screen_id, tour_id) VALUES (?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ScreenBulkRepoImpl(@Qualifier("apiDatasource") DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  @Override
+  public void insertAll(List<Screen> screens) {
+    if (screens.isEmpty()) return;
+
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    for (int from = 0; from < screens.size(); from += INSERT_CHUNK_SIZE) {
+      insertChunk(screens.subList(from, Math.min(from + INSERT_CHUNK_SIZE, screens.size())), now);
+    }
+
+    List<Pair<Long, Long>> joinRows = new ArrayList<>(screens.size());
+    for (Screen screen : screens) {
+      if (screen.getDemoEntities() == null) continue;
+      for (DemoEntity demoEntity : screen.getDemoEntities()) joinRows.add(Pair.with(screen.getId(), demoEntity.getId()));
+    }
+    jdbcTemplate.batchUpdate(INSERT_JOIN_ROW, joinRows, INSERT_CHUNK_SIZE, (ps, row) -> {
+      ps.setLong(1, row.getValue0());
+      ps.setLong(2, row.getValue1());
+    });
+  }
+
+  private void insertChunk(List<Screen> chunk, Timestamp now) {
+    String sql = INSERT_SCREEN_COLS + String.join(", ", Collections.nCopies(chunk.size(), INSERT_SCREEN_ROW));
+    // Same as hibernate.jdbc.time_zone
+    Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    jdbcTemplate.update(con -> {
+      PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+      int i = 1;
+      for (Screen screen : chunk) {
+        ps.setString(i++, screen.getRid());
+        ps.setString(i++, screen.getAssetPrefixHash());
+        ps.setString(i++, screen.getBlobPrefixHash());
+        ps.setTimestamp(i++, now, utc);
+        ps.setTimestamp(i++, now, utc);
+        ps.setString(i++, screen.getDisplayName());
+        ps.setLong(i++, screen.getCreatedBy().getId());
+        ps.setString(i++, screen.getThumbnail());
+        ps.setLong(i++, screen.getParentScreenId());
+        ps.setLong(i++, screen.getBelongsToOrg());
+        ps.setString(i++, screen.getUrl());
+        ps.setString(i++, screen.getIcon());
+        ps.setBoolean(i++, screen.getResponsive());
+        ps.setInt(i++, screen.getType().ordinal());
+      }
+      return ps;
+    }, keyHolder);
+
+    // MySQL hands out consecutive ids for a multi row insert and returns them in the order of the rows
+    List<Map<String, Object>> keys = keyHolder.getKeyList();
+    if (keys.size() != chunk.size()) {
+      throw new IllegalStateException("Expected " + chunk.size() + " generated keys for screens, got " + keys.size());
+    }
+    for (int i = 0; i < chunk.size(); i++) {
+      Screen screen = chunk.get(i);
+      screen.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+      screen.setCreatedAt(now);
+      screen.setUpdatedAt(now);
+    }
+  }
+}
@@ -1,18 +1,48 @@
 package com.sharefable.api.repo;
 
+import com.sharefable.api.common.EntityOwnership;
+import com.sharefable.api.common.ManifestScreen;
 import com.sharefable.api.entity.Screen;
+import com.sharefable.api.transport.resp.RespScreenSummary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface ScreenRepo extends CrudRepository<Screen, Long> {
+public interface ScreenRepo extends CrudRepository<Screen, Long>, ScreenBulkRepo {
   List<Screen> findAllByBelongsToOrgOrderByUpdatedAtDesc(Long belongsToOrgId);
 
+  @Query("SELECT DISTINCT s.belongsToOrg FROM Screen s WHERE s.id IN :ids")
+  List<Long> findOrgIdsByIdIn(Collection<Long> ids);
+
+  @Query("SELECT new com.sharefable.api.transport.resp.RespScreenSummary(s.id, s.parentScreenId, s.rid, s.assetPrefixHash, " +
+    "s.displayName, s.thumbnail, s.url, s.icon, s.type, s.updatedAt, u.id, u.firstName, u.lastName) " +
+    "FROM Screen s JOIN s.createdBy u " +
+    "WHERE s.belongsToOrg = :orgId " +
+    "AND (s.updatedAt < :updatedAt OR (s.updatedAt = :updatedAt AND s.id < :id)) " +
+    "ORDER BY s.updatedAt DESC, s.id DESC")
+  List<RespScreenSummary> findSummaryPageForOrg(Long orgId, Timestamp updatedAt, Long id, PageRequest pageRequest);
+
   Optional<Screen> findByRid(String rid);
 
+  @Query("SELECT new com.sharefable.api.common.EntityOwnership(s.id, s.belongsToOrg, s.assetPrefixHash) FROM Screen s WHERE s.rid = :rid")
+  Optional<EntityOwnership> findOwnershipByRid(String rid);
+
+  @Query("SELECT new com.sharefable.api.common.ManifestScreen(s.displayName, s.url, s.thumbnail, s.icon) " +
+    "FROM DemoEntity d JOIN d.screens s WHERE d.id = :demoEntityId ORDER BY s.id")
+  List<ManifestScreen> findManifestScreensOfEntity(Long demoEntityId);
+
+  @Modifying
+  @Query("UPDATE Screen s SET s.updatedAt = :at WHERE s.id IN :ids")
+  int updateUpdatedAtIn(List<Long> ids, Timestamp at);
+
   List<Screen> findAllByIdIn(Set<Long> id);
 }
@@ -0,0 +1,146 @@
+package com.sharefable.api.service;
+
+import com.sharefable.api.common.ApiKeyOwner;
+import com.sharefable.api.common.CacheInvalidationScope;
+import com.sharefable.api.common.ExpiringLruCache;
+import com.sharefable.api.common.RowSetVersion;
+import com.sharefable.api.common.StatsSource;
+import com.sharefable.api.common.Utils;
+import com.sharefable.api.repo.ApiKeyRepo;
+import io.sentry.Sentry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/*
+ * In memory index of api keys used by X-API-KEY endpoints (zapier etc.). Keys are held as sha-256 digest only.
+ * The index is loaded at startup. Keys of an org are loaded again on every node once a transaction that creates or
+ * revokes keys commits (see CacheInvalidationService); the version of the api_key table (count, max updated_at) is
+ * checked as a backstop.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApiKeyRegistry implements CacheInvalidationService.Listener, StatsSource {
+  private static final long VERSION_CHECK_INTERVAL_MS = 60_000;
+  private static final Duration NEGATIVE_LOOKUP_TTL = Duration.ofSeconds(30);
+  private static final int NEGATIVE_LOOKUP_MAX_SIZE = 5_000;
+
+  private final ApiKeyRepo apiKeyRepo;
+  private final CacheInvalidationService cacheInvalidationService;
+  private final Map<String, ApiKeyOwner> index = new ConcurrentHashMap<>();
+  private final ExpiringLruCache<String, Boolean> negativeLookups = new ExpiringLruCache<>(NEGATIVE_LOOKUP_MAX_SIZE, NEGATIVE_LOOKUP_TTL);
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private volatile RowSetVersion loadedVersion;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    reload();
+  }
+
+  @Scheduled(fixedDelay = VERSION_CHECK_INTERVAL_MS, initialDelay = VERSION_CHECK_INTERVAL_MS)
+  public void reloadIfChanged() {
+    try {
+      RowSetVersion version = apiKeyRepo.findApiKeyVersion();
+      if (!Objects.equals(version, loadedVersion)) reload();
+    } catch (Exception e) {
+      log.error("Could not check api key version", e);
+      Sentry.captureException(e);
+    }
+  }
+
+  public Optional<Long> getOrgIdForActiveKey(String apiKey) {
+    if (StringUtils.isBlank(apiKey)) return Optional.empty();
+    String digest = Utils.sha256Hex(apiKey);
+
+    ApiKeyOwner owner = index.get(digest);
+    if (owner != null) {
+      hits.incrementAndGet();
+      return Boolean.TRUE.equals(owner.active()) ? Optional.of(owner.orgId()) : Optional.empty();
+    }
+    if (negativeLookups.get(digest).isPresent()) {
+      hits.incrementAndGet();
+      return Optional.empty();
+    }
+
+    // Key might have been created on another node after the last version check
+    misses.incrementAndGet();
+    List<ApiKeyOwner> owners = apiKeyRepo.findApiKeyOwnersByApiKey(apiKey);
+    owners.forEach(this::put);
+    Optional<ApiKeyOwner> activeOwner = owners.stream().filter(o -> Boolean.TRUE.equals(o.active())).findFirst();
+    if (activeOwner.isEmpty()) negativeLookups.put(digest, Boolean.TRUE);
+    return activeOwner.map(ApiKeyOwner::orgId);
+  }
+
+  // Must be called in the transaction that creates / revokes keys of the org
+  public void keysChanged(Long orgId) {
+    cacheInvalidationService.invalidate(CacheInvalidationScope.API_KEY, orgId);
+  }
+
+  @Override
+  public void onInvalidation(CacheInvalidationScope scope, Long scopeId) {
+    if (scope == CacheInvalidationScope.API_KEY) reloadOrg(scopeId);
+  }
+
+  @Override
+  public String statsName() {
+    return "apiKeyRegistry";
+  }
+
+  @Override
+  public Stats stats() {
+    return new Stats(index.size(), hits.get(), misses.get());
+  }
+
+  private void put(ApiKeyOwner owner) {
+    String digest = Utils.sha256Hex(owner.apiKey());
+    // The raw key is never kept around
+    index.put(digest, new ApiKeyOwner(null, owner.orgId(), owner.active()));
+    negativeLookups.invalidate(digest);
+  }
+
+  private synchronized void reloadOrg(Long orgId) {
+    List<ApiKeyOwner> owners = apiKeyRepo.findApiKeyOwnersByOrgId(orgId);
+    Map<String, ApiKeyOwner> latest = toIndex(owners);
+    index.entrySet().removeIf(entry -> Objects.equals(entry.getValue().orgId(), orgId) && !latest.containsKey(entry.getKey()));
+    index.putAll(latest);
+    latest.keySet().forEach(negativeLookups::invalidate);
+  }
+
+  private synchronized void reload() {
+    RowSetVersion version = apiKeyRepo.findApiKeyVersion();
+    Map<String, ApiKeyOwner> latest = toIndex(apiKeyRepo.findAllApiKeyOwners());
+    index.keySet().retainAll(latest.keySet());
+    index.putAll(latest);
+    negativeLookups.invalidateAll();
+    loadedVersion = version;
+    log.info("Api key registry loaded with {} keys", latest.size());
+  }
+
+  private static Map<String, ApiKeyOwner> toIndex(List<ApiKeyOwner> owners) {
+    return owners.stream()
+      .collect(Collectors.toMap(
+        owner -> Utils.sha256Hex(owner.apiKey()),
+        owner -> new ApiKeyOwner(null, owner.orgId(), owner.active()),
+        // In case the same key is present more than once the active one wins
+        (a, b) -> Boolean.TRUE.equals(a.active()) ? a : b
+      ));
+  }
+
+  public record Stats(int keys, long hits, long misses) {
+  }
+}
@@ -0,0 +1,73 @@
+package com.sharefable.api.service;
+
+import com.sharefable.api.common.CacheInvalidationScope;
+import com.sharefable.api.common.Utils;
+import com.sharefable.api.entity.CacheInvalidation;
+import com.sharefable.api.repo.CacheInvalidationRepo;
+import io.sentry.Sentry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+/*
+ * Cross node invalidation of in-process caches.
+ *
+ * A write that makes something cached stale records a CacheInvalidation row in its transaction. The row is applied to
+ * the caches (Listener beans) of this node once the transaction commits, so a concurrent read can't cache the state
+ * from before the commit again, and every node (this one included) polls the rows and applies them too. Rows are read
+ * with an overlap so that transactions committing out of order are not missed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheInvalidationService {
+  private static final long POLL_INTERVAL_MS = 5_000;
+  private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+  private static final Duration SIGNAL_RETENTION = Duration.ofDays(1);
+
+  private final CacheInvalidationRepo cacheInvalidationRepo;
+  // Resolved lazily, the listeners depend on this service
+  private final ObjectProvider<Listener> listeners;
+  private volatile long lastPolledAtMs = System.currentTimeMillis();
+
+  public void invalidate(CacheInvalidationScope scope, Long scopeId) {
+    cacheInvalidationRepo.save(CacheInvalidation.builder().scope(scope).scopeId(scopeId).build());
+    Utils.runAfterCommit(() -> apply(scope, scopeId));
+  }
+
+  @Scheduled(fixedDelay = POLL_INTERVAL_MS, initialDelay = POLL_INTERVAL_MS)
+  public void applyInvalidationSignals() {
+    try {
+      long pollStartedAtMs = System.currentTimeMillis();
+      Timestamp since = new Timestamp(lastPolledAtMs - POLL_OVERLAP.toMillis());
+      List<CacheInvalidation> signals = cacheInvalidationRepo.findAllByCreatedAtGreaterThanEqual(since);
+      for (CacheInvalidation signal : signals) apply(signal.getScope(), signal.getScopeId());
+      lastPolledAtMs = pollStartedAtMs;
+    } catch (Exception e) {
+      log.error("Could not apply cache invalidation signals", e);
+      Sentry.captureException(e);
+    }
+  }
+
+  @Transactional
+  @Scheduled(fixedDelay = 60 * 60 * 1000, initialDelay = 60 * 1000)
+  public void removeStaleSignals() {
+    int removed = cacheInvalidationRepo.deleteAllCreatedBefore(new Timestamp(System.currentTimeMillis() - SIGNAL_RETENTION.toMillis()));
+    if (removed > 0) log.info("Removed {} stale cache invalidation signals", removed);
+  }
+
+  private void apply(CacheInvalidationScope scope, Long scopeId) {
+    listeners.orderedStream().forEach(listener -> listener.onInvalidation(scope, scopeId));
+  }
+
+  public interface Listener {
+    void onInvalidation(CacheInvalidationScope scope, Long scopeId);
+  }
+}
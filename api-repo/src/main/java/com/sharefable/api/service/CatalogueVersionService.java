@@ -0,0 +1,53 @@
+package com.sharefable.api.service;
+
+import com.sharefable.api.repo.DemoEntityRepo;
+import com.sharefable.api.repo.OrgRepo;
+import com.sharefable.api.repo.ScreenRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/*
+ * Version of an org's catalogue, i.e. the tours, demo hubs and screens (with their creators) served by the list
+ * endpoints. It's a counter on the org row that every change of those is bumping in its own transaction, so the version
+ * moves only if the change commits and every node reads the same version. The list endpoints derive their weak ETag
+ * from it, a 304 costs one primary key read.
+ *
+ * A change bumps the version before it writes its rows. Inserting a tour / screen takes a shared lock on the org row for
+ * the foreign key check; if the exclusive lock of the bump is taken first, concurrent changes of an org wait on each
+ * other instead of deadlocking.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogueVersionService {
+  private final OrgRepo orgRepo;
+  private final DemoEntityRepo demoEntityRepo;
+  private final ScreenRepo screenRepo;
+
+  @Transactional
+  public void bump(Long orgId) {
+    if (orgId != null) orgRepo.incrementCatalogueVersion(List.of(orgId));
+  }
+
+  @Transactional
+  public void bumpForEntities(Collection<Long> demoEntityIds) {
+    if (demoEntityIds.isEmpty()) return;
+    List<Long> orgIds = demoEntityRepo.findOrgIdsByIdIn(demoEntityIds);
+    if (!orgIds.isEmpty()) orgRepo.incrementCatalogueVersion(orgIds);
+  }
+
+  @Transactional
+  public void bumpForScreens(Collection<Long> screenIds) {
+    if (screenIds.isEmpty()) return;
+    List<Long> orgIds = screenRepo.findOrgIdsByIdIn(screenIds);
+    if (!orgIds.isEmpty()) orgRepo.incrementCatalogueVersion(orgIds);
+  }
+
+  @Transactional(readOnly = true)
+  public String getETag(String catalogue, Long orgId) {
+    return String.format("W/\"%s-%d-%d\"", catalogue, orgId, orgRepo.findCatalogueVersion(orgId).orElse(0L));
+  }
+}
@@ -0,0 +1,253 @@
+package com.sharefable.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharefable.api.common.AssetFilePath;
+import com.sharefable.api.common.ExpiringLruCache;
+import com.sharefable.api.common.JsonPatch;
+import com.sharefable.api.common.StatsSource;
+import com.sharefable.api.common.Utils;
+import com.sharefable.api.config.IoExecutorLifecycle;
+import com.sharefable.api.config.S3Config;
+import com.sharefable.api.repo.DemoEntityRepo;
+import com.sharefable.api.repo.ScreenRepo;
+import com.sharefable.api.service.storage.ObjectStore;
+import io.sentry.Sentry;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Writes the files the editor saves on every change (tour index / loader / edits, screen edits) and buffers the
+ * timestamps that go with them.
+ *
+ * - Every edit is written to S3 with one PUT before it returns, so every node (and the client) reads the latest content
+ *   right away and an acknowledged edit survives a crash of the node. Edits of a file are not coalesced: a write that
+ *   is held back on one node can't be acknowledged safely without routing every edit of the file to that node. Full
+ *   writes of a file are last writer wins, no lock is held while S3 is written.
+ * - The timestamps of the edited tours and screens are updated with one statement per flush (every FLUSH_INTERVAL_MS).
+ *   Only those are lost if the node goes away before a flush, the next edit sets them again.
+ * - An edit can also be sent as a JSON Patch on top of a version (md5 of the stored bytes, same as the S3 ETag) of the file.
+ *   The patched file is written with a conditional write on that version, hence a patch on top of a stale version is
+ *   rejected no matter which node wrote the newer one. Content this node wrote is kept in memory so that the base of a
+ *   patch doesn't have to be read from S3 when it's still the latest.
+ */
+@Slf4j
+@Service
+@DependsOn(IoExecutorLifecycle.BEAN_NAME)
+public class EditFileWriter implements StatsSource {
+  private static final long FLUSH_INTERVAL_MS = 1_000;
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final S3Service s3Service;
+  private final DemoEntityRepo demoEntityRepo;
+  private final ScreenRepo screenRepo;
+  private final PublicEntityCache publicEntityCache;
+  private final CatalogueVersionService catalogueVersionService;
+  private final TransactionTemplate transactionTemplate;
+  // Content of the files this node wrote last, patches are applied on top of these without reading the file from S3
+  private final ExpiringLruCache<String, VersionedContent> recentFiles = new ExpiringLruCache<>(200, Duration.ofMinutes(5));
+  private final Set<Long> editedEntityIds = ConcurrentHashMap.newKeySet();
+  private final Set<Long> editedScreenIds = ConcurrentHashMap.newKeySet();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong patched = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  public EditFileWriter(S3Service s3Service, DemoEntityRepo demoEntityRepo, ScreenRepo screenRepo,
+                               PublicEntityCache publicEntityCache, CatalogueVersionService catalogueVersionService,
+                               PlatformTransactionManager transactionManager) {
+    this.s3Service = s3Service;
+    this.demoEntityRepo = demoEntityRepo;
+    this.screenRepo = screenRepo;
+    this.publicEntityCache = publicEntityCache;
+    this.catalogueVersionService = catalogueVersionService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  public String recordEntityEdit(Long demoEntityId, AssetFilePath filePath, S3Config.FileConfig config, String content) {
+    String version = write(filePath, config, content).version();
+    editedEntityIds.add(demoEntityId);
+    return version;
+  }
+
+  public String recordScreenEdit(Long screenId, AssetFilePath filePath, S3Config.FileConfig config, String content) {
+    String version = write(filePath, config, content).version();
+    editedScreenIds.add(screenId);
+    return version;
+  }
+
+  public String patchEntityEdit(Long demoEntityId, AssetFilePath filePath, S3Config.FileConfig config,
+                                String baseVersion, JsonNode patch) {
+    String version = patch(filePath, config, baseVersion, patch).version();
+    editedEntityIds.add(demoEntityId);
+    return version;
+  }
+
+  public String patchScreenEdit(Long screenId, AssetFilePath filePath, S3Config.FileConfig config,
+                                String baseVersion, JsonNode patch) {
+    String version = patch(filePath, config, baseVersion, patch).version();
+    editedScreenIds.add(screenId);
+    return version;
+  }
+
+  @Scheduled(fixedDelay = FLUSH_INTERVAL_MS, initialDelay = FLUSH_INTERVAL_MS)
+  public void flushPeriodically() {
+    // Timestamps that could not be written stay in the buffer and are retried with the next flush
+    try {
+      flush();
+    } catch (Exception e) {
+      log.error("Could not flush buffered edit timestamps", e);
+      Sentry.captureException(e);
+    }
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  @Override
+  public String statsName() {
+    return "editWrites";
+  }
+
+  @Override
+  public Stats stats() {
+    return new Stats(written.get(), patched.get(), failed.get(), editedEntityIds.size(), editedScreenIds.size());
+  }
+
+  private VersionedContent write(AssetFilePath filePath, S3Config.FileConfig config, String content) {
+    VersionedContent stored = upload(filePath, config, content, null);
+    written.incrementAndGet();
+    return stored;
+  }
+
+  /*
+   * Applies the patch on top of baseVersion of the file. The content of that version is taken from recentFiles when
+   * this node wrote it last, otherwise the file is read from S3. The patched file is written only if the stored file is
+   * still at baseVersion (conditional write), so a patch made on top of a stale version is rejected whichever node
+   * wrote the newer one, and of two concurrent patches on top of the same version only one is written.
+   */
+  private VersionedContent patch(AssetFilePath filePath, S3Config.FileConfig config, String baseVersion, JsonNode patch) {
+    String version = normalizeVersion(baseVersion);
+    VersionedContent base = recentFiles.get(filePath.getFullQualifiedPath())
+      .filter(recent -> recent.version().equals(version))
+      .orElseGet(() -> getStoredContent(filePath));
+    if (!base.version().equals(version)) throw new VersionMismatchException(base.version());
+
+    String content;
+    try {
+      JsonNode document = objectMapper.readTree(base.content());
+      content = objectMapper.writeValueAsString(JsonPatch.apply(document, patch));
+    } catch (JsonProcessingException e) {
+      throw new JsonPatch.InvalidPatchException("File is not a json document");
+    }
+    VersionedContent patchedContent = upload(filePath, config, content, version);
+    patched.incrementAndGet();
+    return patchedContent;
+  }
+
+  private VersionedContent getStoredContent(AssetFilePath filePath) {
+    try {
+      S3Service.StoredObject object = s3Service.getObject(filePath);
+      return new VersionedContent(new String(object.content(), StandardCharsets.UTF_8), normalizeVersion(object.eTag()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // Versions are the md5 of the stored bytes, same as the ETag of the file in S3. ETags could come in quoted / weak form.
+  private static String normalizeVersion(String version) {
+    if (version == null) return "";
+    return StringUtils.strip(StringUtils.removeStart(version.trim(), "W/"), "\"");
+  }
+
+  /*
+   * The content is encoded (compressed) before it's written as the version is the md5 of what gets stored. When
+   * expectedVersion is not null the file is written only if it's still at that version.
+   */
+  private VersionedContent upload(AssetFilePath filePath, S3Config.FileConfig config, String content, String expectedVersion) {
+    S3Service.EncodedContent encoded = s3Service.encodeJson(content.getBytes(StandardCharsets.UTF_8));
+    Map<String, String> userDefinedMetadata = new HashMap<>(2);
+    userDefinedMetadata.put(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+    userDefinedMetadata.put(HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(config.cachePolicy()));
+    try {
+      if (expectedVersion == null) s3Service.upload(filePath, encoded.bytes(), encoded.withEncoding(userDefinedMetadata));
+      else s3Service.uploadIfMatch(filePath, encoded.bytes(), encoded.withEncoding(userDefinedMetadata), expectedVersion);
+    } catch (ObjectStore.PreconditionFailedException e) {
+      recentFiles.invalidate(filePath.getFullQualifiedPath());
+      throw new VersionMismatchException(s3Service.getETag(filePath).map(EditFileWriter::normalizeVersion).orElse(""));
+    } catch (RuntimeException e) {
+      failed.incrementAndGet();
+      // What S3 has now is unknown, the next patch reads it again
+      recentFiles.invalidate(filePath.getFullQualifiedPath());
+      throw e;
+    }
+    VersionedContent stored = new VersionedContent(content, DigestUtils.md5Hex(encoded.bytes()));
+    recentFiles.put(filePath.getFullQualifiedPath(), stored);
+    return stored;
+  }
+
+  private void flush() {
+    List<Long> entityIds = drain(editedEntityIds);
+    List<Long> screenIds = drain(editedScreenIds);
+    if (entityIds.isEmpty() && screenIds.isEmpty()) return;
+    Timestamp now = Utils.getCurrentUtcTimestamp();
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        catalogueVersionService.bumpForEntities(entityIds);
+        catalogueVersionService.bumpForScreens(screenIds);
+        if (!entityIds.isEmpty()) demoEntityRepo.updateLastInteractedAtIn(entityIds, now);
+        if (!screenIds.isEmpty()) screenRepo.updateUpdatedAtIn(screenIds, now);
+      });
+      entityIds.forEach(publicEntityCache::invalidateEntityLocally);
+    } catch (Exception e) {
+      editedEntityIds.addAll(entityIds);
+      editedScreenIds.addAll(screenIds);
+      throw e;
+    }
+  }
+
+  private static List<Long> drain(Set<Long> ids) {
+    List<Long> drained = new ArrayList<>();
+    for (Long id : new ArrayList<>(ids)) {
+      if (ids.remove(id)) drained.add(id);
+    }
+    return drained;
+  }
+
+  private record VersionedContent(String content, String version) {
+  }
+
+  public static class VersionMismatchException extends RuntimeException {
+    @Getter
+    private final String currentVersion;
+
+    public VersionMismatchException(String currentVersion) {
+      super("File has changed, the latest version is " + currentVersion);
+      this.currentVersion = currentVersion;
+    }
+  }
+
+  public record Stats(long written, long patched, long failed, int pendingEntityTimestamps, int pendingScreenTimestamps) {
+  }
+}
@@ -15,24 +15,33 @@ import com.sharefable.api.transport.req.*;
 import com.sharefable.api.transport.resp.RespCommonConfig;
 import com.sharefable.api.transport.resp.RespDemoEntity;
 import com.sharefable.api.transport.resp.RespDemoEntityWithSubEntities;
+import com.sharefable.api.transport.resp.RespEntitySummary;
+import com.sharefable.api.transport.resp.RespPage;
+import com.sharefable.api.transport.resp.RespPatchedEdit;
+import com.sharefable.api.transport.resp.RespScreen;
 import com.sharefable.api.transport.resp.RespUploadUrl;
 import io.sentry.Sentry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Triple;
-import org.javatuples.Pair;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.sql.Timestamp;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -51,6 +60,10 @@ public class EntityService extends ServiceBase {
   private final ScreenRepo screenRepo;
   private final EntityConfigService entityConfigService;
   private final SubscriptionRepo subscriptionRepo;
+  private final PublicEntityCache publicEntityCache;
+  private final TourManifestService tourManifestService;
+  private final EditFileWriter editFileWriter;
+  private final CatalogueVersionService catalogueVersionService;
 
   @Autowired
   public EntityService(
@@ -61,7 +74,9 @@ public class EntityService extends ServiceBase {
     ScreenRepo screenRepo,
     ScreenService screenService,
     UserService userService, AppConfig appConfig,
-    EntityConfigService entityConfigService, SubscriptionRepo subscriptionRepo) {
+    EntityConfigService entityConfigService, SubscriptionRepo subscriptionRepo,
+    PublicEntityCache publicEntityCache, TourManifestService tourManifestService,
+    EditFileWriter editFileWriter, CatalogueVersionService catalogueVersionService) {
     super(settings, s3Service, s3Config, screenRepo, demoEntityRepo);
     this.demoEntityRepo = demoEntityRepo;
     this.userRepo = userRepo;
@@ -74,6 +89,10 @@ public class EntityService extends ServiceBase {
     this.screenRepo = screenRepo;
     this.entityConfigService = entityConfigService;
     this.subscriptionRepo = subscriptionRepo;
+    this.publicEntityCache = publicEntityCache;
+    this.tourManifestService = tourManifestService;
+    this.editFileWriter = editFileWriter;
+    this.catalogueVersionService = catalogueVersionService;
   }
 
   @Transactional
@@ -82,6 +101,20 @@ public class EntityService extends ServiceBase {
     return demoEntities.stream().map(RespDemoEntity::from).collect(Collectors.toList());
   }
 
+  // ETag of the list returned by getAllEntityForOrg, see CatalogueVersionService
+  public String getCatalogueETagForOrg(Long orgId, TopLevelEntityType type) {
+    return catalogueVersionService.getETag(type.name().toLowerCase(), orgId);
+  }
+
+  @Transactional(readOnly = true)
+  public RespPage<RespEntitySummary> getEntitySummaryPageForOrg(Long orgId, TopLevelEntityType type, Optional<String> cursor, Optional<Integer> size) {
+    KeysetCursor after = KeysetCursor.from(cursor);
+    int pageSize = KeysetCursor.pageSize(size);
+    List<RespEntitySummary> rows = demoEntityRepo.findSummaryPageForOrg(orgId, TourDeleted.ACTIVE, type,
+      after.updatedAt(), after.id(), KeysetCursor.pageRequestFor(pageSize));
+    return RespPage.of(rows, pageSize, row -> new KeysetCursor(row.getUpdatedAt(), row.getId()));
+  }
+
   @Transactional
   public List<DemoEntity> getAllPublishedEntity(Long orgId) {
     return demoEntityRepo.findAllByBelongsToOrgAndDeletedAndLastPublishedDateNotNull(orgId, TourDeleted.ACTIVE);
@@ -120,6 +153,7 @@ public class EntityService extends ServiceBase {
       .entityType(type)
       .build();
 
+    catalogueVersionService.bump(demoEntity.getBelongsToOrg());
     DemoEntity storedDemoEntity = demoEntityRepo.save(demoEntity);
     List<EntityConfigKV> entityConfigKV = getEntityConfigKV(demoEntity.getBelongsToOrg());
     return RespDemoEntity.from(storedDemoEntity, entityConfigKV);
@@ -127,6 +161,11 @@ public class EntityService extends ServiceBase {
 
   @Transactional(readOnly = true)
   public RespDemoEntity getEntityByRid(String rid, boolean shouldGetScreens, boolean shouldGetDeletedTour, TopLevelEntityType type) {
+    PublicEntityCache.Key key = new PublicEntityCache.Key(rid, type, shouldGetScreens && type != TopLevelEntityType.DEMO_HUB, shouldGetDeletedTour);
+    return publicEntityCache.getOrLoad(key, () -> loadEntityByRid(rid, shouldGetScreens, shouldGetDeletedTour, type));
+  }
+
+  private RespDemoEntity loadEntityByRid(String rid, boolean shouldGetScreens, boolean shouldGetDeletedTour, TopLevelEntityType type) {
     List<TourWithConfig> maybeTourWithConfig = demoEntityRepo.findTourWithConfigByRidAndDeletedAndEntityType(
       rid,
       shouldGetDeletedTour ? TourDeleted.DELETED : TourDeleted.ACTIVE,
@@ -149,25 +188,52 @@ public class EntityService extends ServiceBase {
     return RespDemoEntity.from(demoEntity, entityConfigKVS);
   }
 
-  @Transactional
+  @Transactional(readOnly = true)
   public RespDemoEntity updateEditForTour(ReqRecordEdit body, User userEntity, EditTour fileTobeEdited) {
+    // The client consumes the whole updated tour from the response, hence the full entity is loaded (in one query)
     DemoEntity demoEntity = getEntityByRIdWithAuthValidation(DemoEntity.class, body.rid(), userEntity);
 
-    S3Config.FileConfig fileConfig = switch (fileTobeEdited) {
+    S3Config.FileConfig fileConfig = getEditFileConfig(fileTobeEdited);
+    // The file is written right away, the timestamps are written by the buffer
+    String version = editFileWriter.recordEntityEdit(
+      demoEntity.getId(),
+      s3Config.getQualifiedPathFor(S3Config.AssetType.Tour, demoEntity.getAssetPrefixHash(), fileConfig.filename()),
+      fileConfig,
+      body.editData());
+    RespDemoEntity resp = RespDemoEntity.from(demoEntity);
+    Timestamp now = Utils.getCurrentUtcTimestamp();
+    resp.setLastInteractedAt(now);
+    resp.setUpdatedAt(now);
+    resp.setEditVersion(version);
+    return resp;
+  }
+
+  @Transactional(readOnly = true)
+  public RespPatchedEdit patchEditForTour(ReqPatchEdit body, User userEntity, EditTour fileTobeEdited) {
+    EntityOwnership ownership = getOwnershipByRIdWithAuthValidation(DemoEntity.class, body.rid(), userEntity);
+    S3Config.FileConfig fileConfig = getEditFileConfig(fileTobeEdited);
+
+    try {
+      String version = editFileWriter.patchEntityEdit(
+        ownership.id(),
+        s3Config.getQualifiedPathFor(S3Config.AssetType.Tour, ownership.assetPrefixHash(), fileConfig.filename()),
+        fileConfig,
+        body.baseVersion(),
+        body.patch());
+      return RespPatchedEdit.builder().rid(body.rid()).version(version).updatedAt(Utils.getCurrentUtcTimestamp()).build();
+    } catch (EditFileWriter.VersionMismatchException | JsonPatch.TestFailedException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+    } catch (JsonPatch.InvalidPatchException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  private S3Config.FileConfig getEditFileConfig(EditTour fileTobeEdited) {
+    return switch (fileTobeEdited) {
       case LOADER -> S3Config.getEntityFiles().loaderFile();
       case EDITS -> S3Config.getEntityFiles().editFile();
       case INDEX -> S3Config.getEntityFiles().tourDataFile();
     };
-
-    uploadDataFileToS3(
-      body.editData(),
-      demoEntity.getAssetPrefixHash(),
-      fileConfig,
-      S3Config.AssetType.Tour);
-
-    demoEntity.setLastInteractedAt(Utils.getCurrentUtcTimestamp());
-    DemoEntity updatedDemoEntity = demoEntityRepo.save(demoEntity);
-    return RespDemoEntity.from(updatedDemoEntity);
   }
 
   @Transactional
@@ -184,10 +250,12 @@ public class EntityService extends ServiceBase {
     demoEntity.setDescription(body.description().isPresent() ? body.description().get() : demoEntity.getDescription());
 
     try {
+      catalogueVersionService.bump(demoEntity.getBelongsToOrg());
       DemoEntity updatedDemoEntity = demoEntityRepo.save(demoEntity);
+      publicEntityCache.invalidateEntity(updatedDemoEntity.getId());
       if (demoEntity.getLastPublishedDate() != null) {
         if (type == TopLevelEntityType.TOUR) {
-          uploadTourManifestToS3(updatedDemoEntity);
+          tourManifestService.enqueue(updatedDemoEntity.getId());
         }
         if (!isSame) modifyPublishedTourEntityPath(oldRid, updatedDemoEntity.getRid(), type);
       }
@@ -237,13 +305,13 @@ public class EntityService extends ServiceBase {
 
   @Transactional(propagation = Propagation.MANDATORY)
   public RespDemoEntityWithSubEntities duplicateTour(DemoEntity fromDemoEntity, User user, FnTourBuilder f, boolean shouldCloneParentScreens) {
-
     Triple<AssetFilePath, AssetFilePath, AssetFilePath> assetFilePaths = getAssetFilePathForTour(fromDemoEntity);
 
     String prefixHash = Utils.createUuidWord();
-    copyDataFileToS3(assetFilePaths.getLeft(), prefixHash, DATA_FILE_TYPE.TOUR_INDEX);
-    copyDataFileToS3(assetFilePaths.getMiddle(), prefixHash, DATA_FILE_TYPE.TOUR_LOADER);
-    copyDataFileToS3(assetFilePaths.getRight(), prefixHash, DATA_FILE_TYPE.TOUR_EDITS);
+    // Tour files are copied while the screens are being cloned
+    List<CompletableFuture<AssetFilePath>> tourFileCopies = List.of(
+      IoExecutor.S3.supplyAsync(() -> copyDataFileToS3(assetFilePaths.getMiddle(), prefixHash, DATA_FILE_TYPE.TOUR_LOADER)),
+      IoExecutor.S3.supplyAsync(() -> copyDataFileToS3(assetFilePaths.getRight(), prefixHash, DATA_FILE_TYPE.TOUR_EDITS)));
 
     String rid = Utils.createReadableId(fromDemoEntity.getDisplayName()); // TODO rid would be different
     DemoEntity.DemoEntityBuilder<?, ?> tourBuilder = DemoEntity.builder()
@@ -265,6 +333,7 @@ public class EntityService extends ServiceBase {
       .createdBy(user);
     tourBuilder = f.apply(tourBuilder);
     DemoEntity demoEntity = tourBuilder.build();
+    catalogueVersionService.bump(demoEntity.getBelongsToOrg());
     DemoEntity savedDemoEntity = demoEntityRepo.save(demoEntity);
 
     Set<Screen> sourceScreens = fromDemoEntity.getScreens();
@@ -273,187 +342,201 @@ public class EntityService extends ServiceBase {
     if (shouldCloneParentScreens) {
       Set<Long> parentScreenIds = sourceScreens.stream().map(Screen::getParentScreenId).collect(Collectors.toSet());
       List<Screen> parentScreens = screenRepo.findAllByIdIn(parentScreenIds);
-      for (Screen parentScreen : parentScreens) {
-        Screen clonedParentScreen = screenService.cloneScreen(newParentScreen -> newParentScreen.demoEntities(Set.of()).parentScreenId(0L), parentScreen, user, savedDemoEntity, demoEntity.getBelongsToOrg());
-        oldAndNewParentScreenMap.put(parentScreen.getId(), clonedParentScreen.getId());
+      List<Screen> clonedParentScreens = screenService.cloneScreens(parentScreens,
+        parentScreen -> newParentScreen -> newParentScreen.demoEntities(Set.of()).parentScreenId(0L), user, savedDemoEntity, demoEntity.getBelongsToOrg());
+      for (int i = 0; i < parentScreens.size(); i++) {
+        oldAndNewParentScreenMap.put(parentScreens.get(i).getId(), clonedParentScreens.get(i).getId());
       }
     }
 
-    Set<Screen> clonedScreens = new HashSet<>(sourceScreens.size());
-    Map<String, String> sourceAndClonedScreenIdMap = new HashMap<>(sourceScreens.size());
-    for (Screen sourceScreen : sourceScreens) {
-      Screen clonedScreen = screenService.cloneScreen(newSourceScreen ->
-        newSourceScreen.parentScreenId(
-          sourceScreen.getType() != ScreenType.SerDom ? 0L : shouldCloneParentScreens ? oldAndNewParentScreenMap.get(sourceScreen.getParentScreenId())
-            : sourceScreen.getParentScreenId()), sourceScreen, user, savedDemoEntity, demoEntity.getBelongsToOrg());
-      clonedScreens.add(clonedScreen);
-      sourceAndClonedScreenIdMap.put(Long.toString(sourceScreen.getId()), Long.toString(clonedScreen.getId()));
+    List<Screen> orderedSourceScreens = new ArrayList<>(sourceScreens);
+    List<Screen> clonedScreenList = screenService.cloneScreens(orderedSourceScreens, sourceScreen -> newSourceScreen ->
+      newSourceScreen.parentScreenId(
+        sourceScreen.getType() != ScreenType.SerDom ? 0L : shouldCloneParentScreens ? oldAndNewParentScreenMap.get(sourceScreen.getParentScreenId())
+          : sourceScreen.getParentScreenId()), user, savedDemoEntity, demoEntity.getBelongsToOrg());
+    Set<Screen> clonedScreens = new HashSet<>(clonedScreenList);
+    Map<String, String> sourceAndClonedScreenIdMap = new HashMap<>(orderedSourceScreens.size());
+    for (int i = 0; i < orderedSourceScreens.size(); i++) {
+      sourceAndClonedScreenIdMap.put(Long.toString(orderedSourceScreens.get(i).getId()), Long.toString(clonedScreenList.get(i).getId()));
     }
+
+    boolean isIndexRemapped;
+    try {
+      isIndexRemapped = writeRemappedTourIndex(assetFilePaths.getLeft(), prefixHash, sourceAndClonedScreenIdMap);
+      CompletableFuture.allOf(tourFileCopies.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException | IOException e) {
+      log.error("Error while copying tour files of {}", fromDemoEntity.getRid(), e);
+      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while duplicating tour");
+    }
+    // The duplicate is complete once its index refers to the cloned screens
+    if (isIndexRemapped) savedDemoEntity.setInProgress(false);
+
     DemoEntity.DemoEntityBuilder<?, ?> updatedTourBuilder = savedDemoEntity.toBuilder().screens(clonedScreens);
     DemoEntity updatedDemoEntity = updatedTourBuilder.build();
     List<EntityConfigKV> entityConfigKV = getEntityConfigKV(demoEntity.getBelongsToOrg());
     RespDemoEntityWithSubEntities resp = RespDemoEntityWithSubEntities.from(updatedDemoEntity, entityConfigKV);
-    resp.setIdxm(Optional.of(sourceAndClonedScreenIdMap));
+    if (!isIndexRemapped) resp.setIdxm(Optional.of(sourceAndClonedScreenIdMap));
 
 
     return resp;
+  }
 
-        /* =============================================================================================================
-         * Tour duplication is a complex process and currently client has to play a role in it (for faster development)
-         * 1. Server clones(duplicate) all the screens + Copy edit files of screens
-         * 2. Create a duplicate tour
-         * 3. Copy tour data (index.json) file for duplicated tour
-         *
-         * Now this should have been enough, but like things in reality, things are always more elaborate than it looks.
-         * Tour data file contains screen id inside the json file for annotation map / hotspot etc. After creating
-         * the duplicate all the screenId has been changed for the duplicated tour.
-         *
-         * Hence, we send the new tour information alongside, the screenId map that the client would use to change the
-         * tour index file and make an edit record request. The reason we are not doing it in server is, server is very
-         * transparent about the tour index data file, it has no information about it's construct etc.
-         *
-         * Client understand the construct hence it's easier for client to do this.
-         *
-         * The following code tried to do high level mutation to the tour data file. But not understanding construct
-         * of tour data file made it difficult for the server to complete all the mutations.
-         * =============================================================================================================
-
-        try {
-            String tourFileContent = new String(s3Service.getObjectContent(toTourFilePath), StandardCharsets.UTF_8);
-            JsonNode rootNode = mapper.readTree(tourFileContent);
-            JsonNode rootNodeCloned = rootNode.deepCopy();
-
-            String v = rootNode.get("v").asText();
-            if (StringUtils.equalsIgnoreCase(v, SchemaVersion.V1.toValue())) {
-                JsonNode entities = rootNode.get("entities");
-
-                Iterator<String> keyIterator = entities.fieldNames();
-                while (keyIterator.hasNext()) {
-                    String screenId = keyIterator.next();
-                    String newScreenId = sourceAndClonedScreenIdMap.get(screenId);
-                    ((ObjectNode) rootNodeCloned.get("entities")).remove(screenId);
-                    ((ObjectNode) rootNodeCloned.get("entities")).set(newScreenId, entities.get(screenId));
-                }
-
-                s3Service.upload(
-                    toTourFilePath,
-                    rootNodeCloned.toString().getBytes(StandardCharsets.UTF_8),
-                    Map.of()
-                );
-            } else {
-                throw new IllegalStateException(String.format("Schema version %s not yet supported", v));
-            }
-
-        } catch (IOException | IllegalStateException e) {
-            log.error("Error while reading duplicated tour's index file. Error {}", e.getMessage());
-            e.printStackTrace();
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "");
-        }
-        */
+  /*
+   * The index file of a tour refers to screens by id (entities, hotspots, main etc.), a duplicate's index is written with
+   * the ids of the cloned screens. Index files of a schema version that the server does not understand are copied as
+   * they are and the client remaps them using the idxm sent in the response (that's how all duplicates used to work).
+   * The source index is streamed from S3 through the remapper into the upload buffer, it's never held in memory as a
+   * whole. An unsupported schema version fails the remap before anything is uploaded.
+   */
+  private boolean writeRemappedTourIndex(AssetFilePath sourceIndexPath, String prefixHash,
+                                         Map<String, String> sourceAndClonedScreenIdMap) throws IOException {
+    try (InputStream sourceIndex = s3Service.openObject(sourceIndexPath)) {
+      uploadDataFileToS3(out -> TourIndexScreenIdRemapper.remap(sourceIndex, out, sourceAndClonedScreenIdMap),
+        prefixHash, S3Config.getEntityFiles().tourDataFile(), S3Config.AssetType.Tour);
+      return true;
+    } catch (TourIndexScreenIdRemapper.UnsupportedSchemaVersionException e) {
+      log.warn("Tour index {} is left for the client to remap. {}", sourceIndexPath.getFilePath(), e.getMessage());
+      copyDataFileToS3(sourceIndexPath, prefixHash, DATA_FILE_TYPE.TOUR_INDEX);
+      return false;
+    }
   }
 
   @Transactional
-  public List<RespDemoEntity> removeEntity(String rid, User userEntity, TopLevelEntityType type) {
+  public RespDemoEntity removeEntity(String rid, User userEntity) {
     DemoEntity demoEntity = getEntityByRIdWithAuthValidation(DemoEntity.class, rid, userEntity);
     demoEntity.setDeleted(TourDeleted.DELETED);
-    demoEntityRepo.save(demoEntity);
-    return getAllEntityForOrg(userEntity.getBelongsToOrg(), TourDeleted.ACTIVE, type);
+    catalogueVersionService.bump(demoEntity.getBelongsToOrg());
+    DemoEntity removedDemoEntity = demoEntityRepo.save(demoEntity);
+    publicEntityCache.invalidateEntity(removedDemoEntity.getId());
+    return RespDemoEntity.from(removedDemoEntity);
   }
 
 
-  @Transactional
-  public RespDemoEntity publishEntity(String rid, User userEntity, RespCommonConfig commonConfig, TopLevelEntityType entityType) {
-    DemoEntity demoEntity = getEntityByRIdWithAuthValidation(DemoEntity.class, rid, userEntity);
-    return publishEntityBasedOnEntityType(demoEntity, commonConfig, entityType);
-  }
+  /*
+   * Copies the demo hub's data file to its published version. This only talks to S3 and does not need a transaction,
+   * see PublishJobService for the steps of a publish.
+   */
+  public void copyDemoHubFilesForPublish(DemoEntity demoHub, Integer nextVersion) {
+    AssetFilePath fromDemoHubDataFilePath = s3Config.getQualifiedPathFor(
+      S3Config.AssetType.DemoHub,
+      demoHub.getAssetPrefixHash(),
+      S3Config.getEntityFiles().demoHubDataFile().filename());
+    AssetFilePath toDemoHubDataFilePath = s3Config.getQualifiedPathFor(
+      S3Config.AssetType.DemoHub, demoHub.getAssetPrefixHash(), S3Config.getEntityFiles().publishedDataFile().filename(nextVersion));
 
-  @Transactional
-  protected RespDemoEntity publishEntityBasedOnEntityType(DemoEntity demoEntity, RespCommonConfig commonConfig, TopLevelEntityType entityType) {
-    if (entityType == TopLevelEntityType.TOUR) {
-      return copyDataForPublishTour(demoEntity, commonConfig);
-    } else {
-      return copyDataForPublishDemoHub(demoEntity, commonConfig);
-    }
+    s3Service.copy(fromDemoHubDataFilePath, toDemoHubDataFilePath, Map.of(
+      HttpHeaders.CONTENT_TYPE, "application/json",
+      HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().publishedDataFile().cachePolicy())
+    ));
   }
 
-  @Transactional
-  public RespDemoEntity publishEntity(ReqTourRid body, RespCommonConfig commonConfig, TopLevelEntityType entityType) {
-    Optional<DemoEntity> maybeTour = demoEntityRepo.findByRidAndDeletedAndEntityType(body.tourRid(), TourDeleted.ACTIVE, entityType);
-    if (maybeTour.isEmpty()) throw new RuntimeException("entity not present");
-    return publishEntityBasedOnEntityType(maybeTour.get(), commonConfig, entityType);
-  }
+  private RespDemoEntity updateEntityAndUploadTos3(DemoEntity demoEntity, Integer nextVersion, RespCommonConfig commonConfig,
+                                                   Optional<PublishManifest> publishManifest) {
+    demoEntity.setLastPublishedDate(Utils.getCurrentUtcTimestamp());
+    demoEntity.setPublishedVersion(nextVersion);
+
+    List<EntityConfigKV> entityConfigKV = getEntityConfigKV(demoEntity.getBelongsToOrg());
+    ClientLogClass logClass = getClientLogClass(demoEntity.getBelongsToOrg());
 
-  @Transactional
-  public RespDemoEntity copyDataForPublishDemoHub(DemoEntity demoEntity, RespCommonConfig commonConfig) {
     try {
-      AssetFilePath fromDemoHubDataFilePath = s3Config.getQualifiedPathFor(
-        S3Config.AssetType.DemoHub,
-        demoEntity.getAssetPrefixHash(),
-        S3Config.getEntityFiles().demoHubDataFile().filename());
-
-      Integer nextVersion = demoEntity.getPublishedVersion() + 1;
-      AssetFilePath toDemoHubDataFilePath = s3Config.getQualifiedPathFor(
-        S3Config.AssetType.DemoHub, demoEntity.getAssetPrefixHash(), S3Config.getEntityFiles().publishedDataFile().filename(nextVersion));
-
-      s3Service.copy(fromDemoHubDataFilePath, toDemoHubDataFilePath, Map.of(
-        HttpHeaders.CONTENT_TYPE, "application/json",
-        HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().publishedDataFile().cachePolicy())
-      ));
-      return updateEntityAndUploadTos3(demoEntity, nextVersion, commonConfig);
+      uploadPublishedEntityFile(demoEntity, commonConfig, entityConfigKV, logClass, publishManifest);
+      DemoEntity savedDemoEntity = demoEntityRepo.save(demoEntity);
+      return RespDemoEntity.from(savedDemoEntity, entityConfigKV);
     } catch (Exception e) {
-      log.error("Error while trying to publish demo hub", e);
-      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while trying to publish demo hub");
-    }
-  }
-
-  @Transactional
-  public Pair<Boolean, RespDemoEntity> refreshAndPublishEntityDataFile(String rid, RespCommonConfig commonConfig) {
-    Optional<DemoEntity> maybeTour = demoEntityRepo.findByRidAndDeleted(rid, TourDeleted.ACTIVE);
-    DemoEntity demoEntity = maybeTour.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-    if (demoEntity.getLastPublishedDate() == null) {
-      List<EntityConfigKV> entityConfigKV = getEntityConfigKV(demoEntity.getBelongsToOrg());
-      RespDemoEntity respTour = RespDemoEntity.from(demoEntity, entityConfigKV);
-      return Pair.with(false, respTour);
+      log.error("Error while trying to publish entity", e);
+      throw new RuntimeException(e.getMessage());
     }
-    return Pair.with(true, updateEntityAndUploadTos3(demoEntity, demoEntity.getPublishedVersion(), commonConfig));
   }
 
-  @Transactional
-  public RespDemoEntity updateEntityAndUploadTos3(DemoEntity demoEntity, Integer nextVersion, RespCommonConfig commonConfig) {
-    demoEntity.setLastPublishedDate(Utils.getCurrentUtcTimestamp());
-    demoEntity.setPublishedVersion(nextVersion);
-
-    List<EntityConfigKV> entityConfigKV = getEntityConfigKV(demoEntity.getBelongsToOrg());
+  /*
+   * Writes the published entity file (0_d_data.json) for the entity as it is, nothing is saved in db. The org level
+   * config and log class are passed in so that they can be read once while republishing all the entities of an org.
+   */
+  public void uploadPublishedEntityFile(DemoEntity demoEntity, RespCommonConfig commonConfig, List<EntityConfigKV> entityConfigKV,
+                                        ClientLogClass logClass, Optional<PublishManifest> publishManifest) throws IOException {
     RespDemoEntityWithSubEntities respTour = RespDemoEntityWithSubEntities.from(demoEntity, commonConfig, entityConfigKV);
+    // Versions published before the manifest existed have every screen's edit file copied as {n}_edits.json, the client
+    // falls back to the tour's pubEditFileName for those
+    publishManifest.map(PublishManifest::getScreenEdits).ifPresent(screenEdits -> {
+      if (respTour.getScreens() == null) return;
+      for (RespScreen screen : respTour.getScreens()) {
+        PublishManifest.PublishedFile publishedEditFile = screenEdits.get(screen.getAssetPrefixHash());
+        if (publishedEditFile == null) continue;
+        screen.setPubEditFileName(S3Config.getEntityFiles().publishedEditFile().filename(publishedEditFile.version()));
+      }
+    });
+    respTour.setLogClass(logClass);
+    ApiResp<RespDemoEntityWithSubEntities> apiResp = ApiResp.<RespDemoEntityWithSubEntities>builder().data(respTour).build();
+
+    uploadDataFileToS3(objectMapper, apiResp, demoEntity.getRid(), S3Config.getEntityFiles().publishedTourEntityFile(),
+      demoEntity.getEntityType() == TopLevelEntityType.DEMO_HUB ? S3Config.AssetType.PublishedDemoHub : S3Config.AssetType.PublishedTour);
+  }
 
-    // Based on subscription plan get log class
-    Subscription sub = subscriptionRepo.getSubscriptionByOrgId(demoEntity.getBelongsToOrg());
-    ClientLogClass logClass = switch (sub.getPaymentPlan()) {
+  // Based on subscription plan get log class
+  public ClientLogClass getClientLogClass(Long orgId) {
+    Subscription sub = subscriptionRepo.getSubscriptionByOrgId(orgId);
+    return switch (sub.getPaymentPlan()) {
       case SOLO, STARTUP, LIFETIME_TIER1, LIFETIME_TIER2 -> ClientLogClass.Basic;
       case LIFETIME_TIER3, LIFETIME_TIER4, LIFETIME_TIER5, BUSINESS -> ClientLogClass.Full;
     };
-    respTour.setLogClass(logClass);
-    ApiResp<RespDemoEntityWithSubEntities> apiResp = ApiResp.<RespDemoEntityWithSubEntities>builder().data(respTour).build();
+  }
 
-    try {
-      String tourResp = objectMapper.writeValueAsString(apiResp);
-      uploadDataFileToS3(tourResp, demoEntity.getRid(), S3Config.getEntityFiles().publishedTourEntityFile(),
-        demoEntity.getEntityType() == TopLevelEntityType.DEMO_HUB ? S3Config.AssetType.PublishedDemoHub : S3Config.AssetType.PublishedTour);
+  /*
+   * Published entities of an org with their screens, read in one go for republishing (see uploadPublishedEntityFile).
+   */
+  @Transactional(readOnly = true)
+  public List<DemoEntity> getPublishedEntitiesWithScreensForOrg(Long orgId) {
+    return demoEntityRepo.findAllPublishedWithScreensForOrg(orgId, TourDeleted.ACTIVE);
+  }
 
-      DemoEntity savedDemoEntity = demoEntityRepo.save(demoEntity);
-      return RespDemoEntity.from(savedDemoEntity, entityConfigKV);
-    } catch (Exception e) {
-      log.error("Error while trying to publish entity", e);
-      throw new RuntimeException(e.getMessage());
+  /*
+   * Rewrites the published entity file of an entity read for republishing and sets its lastPublishedDate. The row is
+   * locked like completePublish locks it till the file is written, so a publish that completes while the org is being
+   * republished is never overwritten with the version that was read before it. Nothing is written when the entity got
+   * published again or removed since it was read, false is returned then.
+   */
+  @Transactional
+  public boolean republishEntity(DemoEntity entity, Timestamp republishedAt, RespCommonConfig commonConfig,
+                                 List<EntityConfigKV> entityConfigKV, ClientLogClass logClass,
+                                 Optional<PublishManifest> publishManifest) throws IOException {
+    Optional<DemoEntity> current = demoEntityRepo.findByIdForUpdate(entity.getId());
+    if (current.isEmpty() || current.get().getDeleted() == TourDeleted.DELETED
+      || !Objects.equals(current.get().getPublishedVersion(), entity.getPublishedVersion())) {
+      return false;
     }
+    // The entity file carries the same lastPublishedDate that is saved for the entity
+    entity.setLastPublishedDate(republishedAt);
+    uploadPublishedEntityFile(entity, commonConfig, entityConfigKV, logClass, publishManifest);
+    current.get().setLastPublishedDate(republishedAt);
+    return true;
+  }
+
+  // Signals the entities republished by republishEntity, their rows are updated by then
+  @Transactional
+  public void markEntitiesAsRepublished(Long orgId, List<Long> demoEntityIds) {
+    if (demoEntityIds.isEmpty()) return;
+    catalogueVersionService.bump(orgId);
+    publicEntityCache.invalidateOrg(orgId);
+  }
+
+  private AssetFilePath getPublishManifestPath(DemoEntity demoEntity, Integer version) {
+    return s3Config.getQualifiedPathFor(
+      S3Config.AssetType.Tour, demoEntity.getAssetPrefixHash(), S3Config.getEntityFiles().publishManifestFile().filename(version));
+  }
+
+  public Optional<PublishManifest> readPublishManifest(DemoEntity demoEntity, Integer version) throws IOException {
+    if (version == null || version == 0) return Optional.empty();
+    Optional<byte[]> content = s3Service.getObjectContentIfExists(getPublishManifestPath(demoEntity, version));
+    if (content.isEmpty()) return Optional.empty();
+    return Optional.of(objectMapper.readValue(content.get(), PublishManifest.class));
   }
 
   public RespUploadUrl getPreSignedUrlToUpdateDemoHub(String rid, User userEntity) {
-    DemoEntity demoEntity = getEntityByRIdWithAuthValidation(DemoEntity.class, rid, userEntity);
+    EntityOwnership ownership = getOwnershipByRIdWithAuthValidation(DemoEntity.class, rid, userEntity);
 
     AssetFilePath filePath = s3Config.getQualifiedPathFor(
       S3Config.AssetType.DemoHub,
-      demoEntity.getAssetPrefixHash(),
+      ownership.assetPrefixHash(),
       S3Config.getEntityFiles().demoHubDataFile().filename());
     URL url = s3Service.preSignedUrl(filePath, "application/json");
     log.warn("url {}", url);
@@ -465,98 +548,127 @@ public class EntityService extends ServiceBase {
       .build();
   }
 
-  @Transactional
-  public RespDemoEntity copyDataForPublishTour(DemoEntity demoEntity, RespCommonConfig commonConfig) {
+  /*
+   * Loads the entity that is to be published along with its screens, so that the files can be copied outside of any
+   * transaction (see copyTourFilesForPublish).
+   */
+  @Transactional(readOnly = true)
+  public DemoEntity getEntityForPublish(String rid, TopLevelEntityType type) {
+    DemoEntity demoEntity = demoEntityRepo.findByRidAndDeletedAndEntityType(rid, TourDeleted.ACTIVE, type)
+      .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Entity with rid " + rid + " is not found"));
+    Hibernate.initialize(demoEntity.getScreens());
+    return demoEntity;
+  }
+
+  @Transactional(readOnly = true)
+  public DemoEntity getEntityForPublish(String rid) {
+    DemoEntity demoEntity = demoEntityRepo.findByRidAndDeleted(rid, TourDeleted.ACTIVE)
+      .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Entity with rid " + rid + " is not found"));
+    Hibernate.initialize(demoEntity.getScreens());
+    return demoEntity;
+  }
+
+  /*
+   * Copies the tour's files to their published version. This only talks to S3 and does not need a transaction, the
+   * screens of the tour must already be loaded.
+   */
+  public PublishManifest copyTourFilesForPublish(DemoEntity demoEntity, Integer nextVersion) throws Exception {
     Set<Screen> screens = demoEntity.getScreens();
 
-    try {
-      uploadTourManifestToS3(demoEntity);
-      Triple<AssetFilePath, AssetFilePath, AssetFilePath> assetFilePaths = getAssetFilePathForTour(demoEntity);
-
-      Integer nextVersion = demoEntity.getPublishedVersion() + 1;
-      AssetFilePath toTourDataFilePath = s3Config.getQualifiedPathFor(
-        S3Config.AssetType.Tour, demoEntity.getAssetPrefixHash(), S3Config.getEntityFiles().publishedDataFile().filename(nextVersion));
-      AssetFilePath toTourLoaderFilePath = s3Config.getQualifiedPathFor(
-        S3Config.AssetType.Tour, demoEntity.getAssetPrefixHash(), S3Config.getEntityFiles().publishedLoaderFile().filename(nextVersion));
-      AssetFilePath toTourEditsFilePath = s3Config.getQualifiedPathFor(
-        S3Config.AssetType.Tour, demoEntity.getAssetPrefixHash(), S3Config.getEntityFiles().publishedEditFile().filename(nextVersion));
-
-      List<Callable<AssetFilePath>> tourInfoCopier = new ArrayList<>();
-      Callable<AssetFilePath> tourDataCopier = () -> s3Service.copy(assetFilePaths.getLeft(), toTourDataFilePath, Map.of(
-        HttpHeaders.CONTENT_TYPE, "application/json",
-        HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().publishedDataFile().cachePolicy())
-      ));
-      Callable<AssetFilePath> tourLoaderCopier = () -> s3Service.copy(assetFilePaths.getMiddle(), toTourLoaderFilePath, Map.of(
-        HttpHeaders.CONTENT_TYPE, "application/json",
-        HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().publishedLoaderFile().cachePolicy())
-      ));
-      Callable<AssetFilePath> tourEditsCopier = () -> s3Service.copy(assetFilePaths.getRight(), toTourEditsFilePath, Map.of(
-        HttpHeaders.CONTENT_TYPE, "application/json",
-        HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().publishedEditFile().cachePolicy())
-      ));
-
-      tourInfoCopier.add(tourDataCopier);
-      tourInfoCopier.add(tourLoaderCopier);
-      tourInfoCopier.add(tourEditsCopier);
-
-      for (Screen screen : screens) {
-        if (screen.getType() != ScreenType.Img) {
-          AssetFilePath fromScreenEditFilePath = s3Config.getQualifiedPathFor(
-            S3Config.AssetType.Screen,
-            screen.getAssetPrefixHash(),
-            S3Config.getEntityFiles().editFile().filename());
-          AssetFilePath toScreenEditFilePath = s3Config.getQualifiedPathFor(
-            S3Config.AssetType.Screen,
-            screen.getAssetPrefixHash(),
-            S3Config.getEntityFiles().publishedEditFile().filename(nextVersion));
-
-          Callable<AssetFilePath> screenEditCopier = () -> s3Service.copy(fromScreenEditFilePath, toScreenEditFilePath, Map.of(
+    tourManifestService.enqueue(demoEntity.getId());
+    Triple<AssetFilePath, AssetFilePath, AssetFilePath> assetFilePaths = getAssetFilePathForTour(demoEntity);
+
+    AssetFilePath toTourDataFilePath = s3Config.getQualifiedPathFor(
+      S3Config.AssetType.Tour, demoEntity.getAssetPrefixHash(), S3Config.getEntityFiles().publishedDataFile().filename(nextVersion));
+    AssetFilePath toTourLoaderFilePath = s3Config.getQualifiedPathFor(
+      S3Config.AssetType.Tour, demoEntity.getAssetPrefixHash(), S3Config.getEntityFiles().publishedLoaderFile().filename(nextVersion));
+    AssetFilePath toTourEditsFilePath = s3Config.getQualifiedPathFor(
+      S3Config.AssetType.Tour, demoEntity.getAssetPrefixHash(), S3Config.getEntityFiles().publishedEditFile().filename(nextVersion));
+
+    List<CompletableFuture<AssetFilePath>> tourInfoCopies = new ArrayList<>();
+    tourInfoCopies.add(s3Service.copyAsync(assetFilePaths.getLeft(), toTourDataFilePath, Map.of(
+      HttpHeaders.CONTENT_TYPE, "application/json",
+      HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().publishedDataFile().cachePolicy())
+    )));
+    tourInfoCopies.add(s3Service.copyAsync(assetFilePaths.getMiddle(), toTourLoaderFilePath, Map.of(
+      HttpHeaders.CONTENT_TYPE, "application/json",
+      HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().publishedLoaderFile().cachePolicy())
+    )));
+    tourInfoCopies.add(s3Service.copyAsync(assetFilePaths.getRight(), toTourEditsFilePath, Map.of(
+      HttpHeaders.CONTENT_TYPE, "application/json",
+      HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().publishedEditFile().cachePolicy())
+    )));
+
+    // A screen's edit file is copied only when it has changed since the last publish, otherwise the new version keeps
+    // referring to the file that is already published
+    Map<String, PublishManifest.PublishedFile> lastPublishedScreenEdits = readPublishManifest(demoEntity, demoEntity.getPublishedVersion())
+      .map(PublishManifest::getScreenEdits)
+      .orElse(Map.of());
+    Map<String, PublishManifest.PublishedFile> publishedScreenEdits = new ConcurrentHashMap<>();
+    for (Screen screen : screens) {
+      if (screen.getType() != ScreenType.Img) {
+        AssetFilePath fromScreenEditFilePath = s3Config.getQualifiedPathFor(
+          S3Config.AssetType.Screen,
+          screen.getAssetPrefixHash(),
+          S3Config.getEntityFiles().editFile().filename());
+        AssetFilePath toScreenEditFilePath = s3Config.getQualifiedPathFor(
+          S3Config.AssetType.Screen,
+          screen.getAssetPrefixHash(),
+          S3Config.getEntityFiles().publishedEditFile().filename(nextVersion));
+
+        Callable<AssetFilePath> screenEditCopier = () -> {
+          String sourceETag = s3Service.getETag(fromScreenEditFilePath).orElse(null);
+          PublishManifest.PublishedFile lastPublished = lastPublishedScreenEdits.get(screen.getAssetPrefixHash());
+          if (sourceETag != null && lastPublished != null && sourceETag.equals(lastPublished.sourceETag())) {
+            publishedScreenEdits.put(screen.getAssetPrefixHash(), lastPublished);
+            return null;
+          }
+          s3Service.copy(fromScreenEditFilePath, toScreenEditFilePath, Map.of(
             HttpHeaders.CONTENT_TYPE, "application/json",
             HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().publishedLoaderFile().cachePolicy())
           ));
-          tourInfoCopier.add(screenEditCopier);
-        }
+          publishedScreenEdits.put(screen.getAssetPrefixHash(), new PublishManifest.PublishedFile(sourceETag, nextVersion));
+          return toScreenEditFilePath;
+        };
+        tourInfoCopies.add(IoExecutor.S3.supplyAsync(screenEditCopier));
       }
-      Utils.runInParallel(tourInfoCopier.toArray(new Callable[0]));
-
-      return updateEntityAndUploadTos3(demoEntity, nextVersion, commonConfig);
-    } catch (Exception e) {
-      log.error("Error while trying to publish tour", e);
-      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while trying to publish tour");
     }
+    try {
+      CompletableFuture.allOf(tourInfoCopies.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof Exception cause) throw cause;
+      throw e;
+    }
+
+    PublishManifest publishManifest = PublishManifest.builder()
+      .version(nextVersion)
+      .screenEdits(publishedScreenEdits)
+      .build();
+    uploadDataFileToS3(
+      objectMapper.writeValueAsString(publishManifest),
+      getPublishManifestPath(demoEntity, nextVersion),
+      S3Config.getEntityFiles().publishManifestFile());
+
+    return publishManifest;
   }
 
+  /*
+   * Bumps the published version and writes the published entity file once the files are copied. The row stays locked
+   * till the commit; a publish whose version got taken by another publish (on any node) in the meantime fails instead of
+   * publishing the same version again.
+   */
   @Transactional
-  @Async
-  public void uploadTourManifestToS3(DemoEntity demoEntity) {
-    TourManifest tourManifest = TourManifest.builder()
-      .version(1)
-      .name(demoEntity.getDisplayName())
-      .url(appConfig.getUrlForDemo() + "/" + demoEntity.getRid())
-      .build();
-    List<ScreenAssets> screenAssets = new ArrayList<>();
-    try {
-      S3Config.PathConfigForClient pathConfigForClient = s3Config.getPathConfigForClient();
-      String commonAssetPath = pathConfigForClient.commonAsset();
-      for (Screen screen : demoEntity.getScreens()) {
-        if (StringUtils.isBlank(screen.getThumbnail())) continue;
-        ScreenAssets screenAsset = ScreenAssets.builder()
-          .name(screen.getDisplayName())
-          .url(screen.getUrl())
-          .thumbnail(commonAssetPath + screen.getThumbnail())
-          .icon(screen.getIcon())
-          .build();
-        screenAssets.add(screenAsset);
-      }
-      tourManifest.setScreenAssets(screenAssets);
-      String tourScreenInfoAsString = objectMapper.writeValueAsString(tourManifest);
-      AssetFilePath manifestPath = uploadDataFileToS3(tourScreenInfoAsString, demoEntity.getRid(), S3Config.getEntityFiles().manifestFile(), S3Config.AssetType.PublishedTour);
-      // Currently gif creation runs into problem since the container size is pretty small it runs into oom
-      // uncomment this code if gif creation is needed and oom is fixed.
-      // mediaProcessingService.generateDemoGif(tour, manifestPath, s3Config.getQualifiedPathFor(S3Config.AssetType.PublishedTour, tour.getRid(), "demo.gif"));
-    } catch (Exception e) {
-      throw new RuntimeException("Something went wrong while sending tour screen info to s3 " + e.getMessage());
+  public RespDemoEntity completePublish(Long demoEntityId, Integer nextVersion, RespCommonConfig commonConfig,
+                                        Optional<PublishManifest> publishManifest) {
+    // Before the row is locked, see CatalogueVersionService
+    catalogueVersionService.bumpForEntities(List.of(demoEntityId));
+    DemoEntity demoEntity = demoEntityRepo.findByIdForUpdate(demoEntityId)
+      .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Entity is not found"));
+    if (demoEntity.getPublishedVersion() + 1 != nextVersion) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "Entity got published in the meantime, publish it again");
     }
+    publicEntityCache.invalidateEntity(demoEntityId);
+    return updateEntityAndUploadTos3(demoEntity, nextVersion, commonConfig, publishManifest);
   }
 
   private List<DemoEntity> getOnboardingTours() {
@@ -613,7 +725,9 @@ public class EntityService extends ServiceBase {
     body.getSettings().ifPresent(demoEntity::setSettings);
     body.getInfo().ifPresent(demoEntity::setInfo);
     body.getLastInteractedAt().ifPresent(lastInteractedAt -> demoEntity.setLastInteractedAt(Utils.getCurrentUtcTimestamp()));
+    catalogueVersionService.bump(demoEntity.getBelongsToOrg());
     DemoEntity savedDemoEntity = demoEntityRepo.save(demoEntity);
+    publicEntityCache.invalidateEntity(savedDemoEntity.getId());
     return RespDemoEntity.from(savedDemoEntity);
   }
 
@@ -673,18 +787,26 @@ public class EntityService extends ServiceBase {
     return entityConfigService.getEntityConfigForAnOrg(ConfigEntityType.Org, orgId, Set.of(EntityConfigConfigType.GLOBAL_OPTS, EntityConfigConfigType.DATASET));
   }
 
+  @Transactional
   public List<String> lockOrUnlockDemosInAccount(ReqLockUnlockDemo req) {
-    List<DemoEntity> demos = demoEntityRepo.findAllByBelongsToOrgAndDeleted(req.getOrgId(), TourDeleted.ACTIVE);
-    List<DemoEntity> tobeChangedDemos = demos.stream().filter(d -> d.getInfo().isLocked() != req.isShouldLock()).toList();
+    return updateInfoFlagOfOrgEntities(req.getOrgId(), "locked", req.isShouldLock());
+  }
 
-    for (DemoEntity demo : tobeChangedDemos) {
-      demo.getInfo().setLocked(req.isShouldLock());
-    }
-    Iterable<DemoEntity> savedDemos = demoEntityRepo.saveAll(tobeChangedDemos);
-    List<String> savedDemoRids = new ArrayList<>(tobeChangedDemos.size());
-    for (DemoEntity savedDemo : savedDemos) {
-      savedDemoRids.add(savedDemo.getRid());
-    }
-    return savedDemoRids;
+  /*
+   * Sets a boolean flag of the info json of all the active entities of an org with two statements (select of the rids
+   * that would change followed by an update of those), no entity is loaded. Returns the rids of the changed entities.
+   */
+  @Transactional
+  public List<String> updateInfoFlagOfOrgEntities(Long orgId, String flag, boolean value) {
+    String jsonPath = "$." + flag;
+    String jsonValue = Boolean.toString(value);
+    // Before the rows are locked by the select
+    catalogueVersionService.bump(orgId);
+    List<String> rids = demoEntityRepo.findRidsOfOrgWithInfoFlagOtherThan(orgId, TourDeleted.ACTIVE.ordinal(), jsonPath, jsonValue);
+    if (rids.isEmpty()) return rids;
+
+    demoEntityRepo.updateInfoFlagByRids(rids, jsonPath, jsonValue, Utils.getCurrentUtcTimestamp());
+    publicEntityCache.invalidateOrg(orgId);
+    return rids;
   }
 }
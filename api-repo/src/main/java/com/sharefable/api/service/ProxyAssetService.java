@@ -28,6 +28,7 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -148,9 +149,8 @@ public class ProxyAssetService {
       if (body.getBody().get()) {
         String proxyUri = proxyAsset.getProxyUri();
         AssetFilePath assetFilePath = s3Config.getQualifiedPathFor(S3Config.AssetType.ProxyAsset, proxyUri);
-        try {
-          byte[] content = s3Service.getObjectContent(assetFilePath);
-          respProxyAsset.setContent(Optional.of(new String(content)));
+        try (InputStream content = s3Service.openObject(assetFilePath)) {
+          respProxyAsset.setContent(Optional.of(new String(content.readAllBytes(), StandardCharsets.UTF_8)));
         } catch (IOException e) {
           log.error("Something went wrong while getting content from s3 for origin {} {}", origin, e.getMessage());
           Sentry.captureException(e);
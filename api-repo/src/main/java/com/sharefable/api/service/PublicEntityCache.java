@@ -0,0 +1,109 @@
+package com.sharefable.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharefable.api.common.CacheInvalidationScope;
+import com.sharefable.api.common.ExpiringLruCache;
+import com.sharefable.api.common.StatsSource;
+import com.sharefable.api.common.TopLevelEntityType;
+import com.sharefable.api.transport.resp.RespDemoEntity;
+import io.sentry.Sentry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/*
+ * Read through cache for the public (unauthenticated) tour / demo hub reads that are hit by embeds.
+ *
+ * Responses are cached serialized and every hit gets its own instance, so a caller mutating its response can't change
+ * what other callers are served.
+ *
+ * Writes that change what is served signal an invalidation of the entity (or the whole org for org level config)
+ * through CacheInvalidationService. It's applied on this node once the write commits and on every node (this one
+ * included) again with the next poll, so a read that raced with the write and cached the old state does not outlive
+ * the poll.
+ *
+ * High frequency writes that only move timestamps (edit recording) invalidate locally only; on other nodes they are
+ * bounded by the ttl.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PublicEntityCache implements CacheInvalidationService.Listener, StatsSource {
+  private static final int MAX_SIZE = 5_000;
+  private static final Duration TTL = Duration.ofSeconds(60);
+
+  private final CacheInvalidationService cacheInvalidationService;
+  private final ObjectMapper objectMapper;
+  private final ExpiringLruCache<Key, CachedResp> cache = new ExpiringLruCache<>(MAX_SIZE, TTL);
+
+  public RespDemoEntity getOrLoad(Key key, Supplier<RespDemoEntity> loader) {
+    Optional<CachedResp> cached = cache.get(key);
+    if (cached.isPresent()) {
+      try {
+        return objectMapper.readValue(cached.get().json(), cached.get().type());
+      } catch (IOException e) {
+        log.error("Could not read cached response of {}, loading it again", key, e);
+        Sentry.captureException(e);
+        cache.invalidate(key);
+      }
+    }
+
+    RespDemoEntity resp = loader.get();
+    try {
+      cache.put(key, new CachedResp(resp.getId(), resp.getBelongsToOrg(), resp.getClass(), objectMapper.writeValueAsBytes(resp)));
+    } catch (JsonProcessingException e) {
+      log.error("Could not cache response of {}", key, e);
+      Sentry.captureException(e);
+    }
+    return resp;
+  }
+
+  public void invalidateEntity(Long entityId) {
+    cacheInvalidationService.invalidate(CacheInvalidationScope.ENTITY, entityId);
+  }
+
+  public void invalidateEntityLocally(Long entityId) {
+    cache.invalidateIf((key, resp) -> Objects.equals(resp.id(), entityId));
+  }
+
+  public void invalidateOrg(Long orgId) {
+    cacheInvalidationService.invalidate(CacheInvalidationScope.ORG, orgId);
+  }
+
+  private void invalidateOrgLocally(Long orgId) {
+    cache.invalidateIf((key, resp) -> Objects.equals(resp.belongsToOrg(), orgId));
+  }
+
+  @Override
+  public void onInvalidation(CacheInvalidationScope scope, Long scopeId) {
+    switch (scope) {
+      case ENTITY -> invalidateEntityLocally(scopeId);
+      case ORG -> invalidateOrgLocally(scopeId);
+      default -> {
+      }
+    }
+  }
+
+  @Override
+  public String statsName() {
+    return "publicEntityCache";
+  }
+
+  @Override
+  public ExpiringLruCache.Stats stats() {
+    return cache.stats();
+  }
+
+  public record Key(String rid, TopLevelEntityType type, boolean includeScreens, boolean includeDeleted) {
+  }
+
+  private record CachedResp(Long id, Long belongsToOrg, Class<? extends RespDemoEntity> type, byte[] json) {
+  }
+}
@@ -0,0 +1,362 @@
+package com.sharefable.api.service;
+
+import com.sharefable.api.common.EntityOwnership;
+import com.sharefable.api.common.IoExecutor;
+import com.sharefable.api.common.PublishManifest;
+import com.sharefable.api.common.TopLevelEntityType;
+import com.sharefable.api.common.Utils;
+import com.sharefable.api.config.IoExecutorLifecycle;
+import com.sharefable.api.entity.DemoEntity;
+import com.sharefable.api.entity.EntityConfigKV;
+import com.sharefable.api.entity.Job;
+import com.sharefable.api.entity.User;
+import com.sharefable.api.repo.JobRepo;
+import com.sharefable.api.transport.ClientLogClass;
+import com.sharefable.api.transport.JobProcessingStatus;
+import com.sharefable.api.transport.JobType;
+import com.sharefable.api.transport.PublishTourJobInfo;
+import com.sharefable.api.transport.RepublishOrgJobInfo;
+import com.sharefable.api.transport.resp.RespCommonConfig;
+import com.sharefable.api.transport.resp.RespDemoEntity;
+import com.sharefable.api.transport.resp.RespPublishJob;
+import com.sharefable.api.transport.resp.RespRepublishJob;
+import io.sentry.Sentry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.javatuples.Pair;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/*
+ * Publishes a tour in the background. The request only records a job (Touched) and returns it, the client polls the job
+ * till it's Processed or Failed.
+ *
+ * No publish (job, demo hub or internal) holds a transaction while copying files in S3. The entity is read in a short
+ * read only transaction, files are copied without any transaction and the version bump (along with the published entity
+ * file) happens in its own transaction at the end. That transaction locks the entity's row and fails with a conflict if
+ * another publish (on any node) took the version in the meantime. A tour publish job is refused while another job of
+ * the same tour is still pending.
+ *
+ * Jobs run on the publish executor, which rejects instead of running on the request thread once its queue is full;
+ * submitting then fails with 503.
+ *
+ * Republishing an org (after org level config changes) only rewrites the published entity file of every published
+ * entity, the published version stays as it is. Entities are read in one query and the org level config is read once;
+ * entity files are written in chunks on the shared S3 executor and the job records the progress after every chunk.
+ */
+@Slf4j
+@Service
+@DependsOn(IoExecutorLifecycle.BEAN_NAME)
+@RequiredArgsConstructor
+public class PublishJobService {
+  private static final Duration STALE_JOB_AFTER = Duration.ofMinutes(15);
+  private static final List<JobProcessingStatus> PENDING_STATUSES = List.of(JobProcessingStatus.Touched, JobProcessingStatus.InProcess);
+  // Entities of a chunk are republished in parallel, each one holds a db connection (and its row lock) till its file is written
+  private static final int REPUBLISH_CHUNK_SIZE = 10;
+
+  private final JobRepo jobRepo;
+  private final EntityService entityService;
+
+  @Transactional
+  public RespPublishJob submitTourPublish(String rid, User user, RespCommonConfig commonConfig) {
+    EntityOwnership ownership = entityService.getOwnershipByRIdWithAuthValidation(DemoEntity.class, rid, user);
+    ensurePublishCapacity();
+    if (jobRepo.existsByJobTypeAndJobKeyStartingWithAndProcessingStatusIn(JobType.PUBLISH_TOUR, rid + ":", PENDING_STATUSES)) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "Tour is already being published");
+    }
+
+    String jobKey = rid + ":" + Utils.getShortRandomId();
+    PublishTourJobInfo info = PublishTourJobInfo.builder()
+      .key(jobKey)
+      .rid(rid)
+      .orgId(ownership.belongsToOrg())
+      .build();
+    Job job = jobRepo.save(Job.builder()
+      .jobType(JobType.PUBLISH_TOUR)
+      .jobKey(jobKey)
+      .processingStatus(JobProcessingStatus.Touched)
+      .info(info)
+      .build());
+
+    Long jobId = job.getId();
+    startAfterCommit(jobId, () -> runTourPublish(jobId, rid, commonConfig));
+    return RespPublishJob.from(job);
+  }
+
+  // Same as the job, but runs on the request thread. Kept for clients that publish synchronously.
+  public RespDemoEntity publishTourNow(String rid, User user, RespCommonConfig commonConfig) {
+    entityService.getOwnershipByRIdWithAuthValidation(DemoEntity.class, rid, user);
+    return publishTourInternal(rid, commonConfig);
+  }
+
+  // Used by the migration endpoint, no user is involved
+  public RespDemoEntity publishTourInternal(String rid, RespCommonConfig commonConfig) {
+    try {
+      return publishTour(rid, commonConfig).getValue1();
+    } catch (ResponseStatusException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("Error while trying to publish tour", e);
+      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while trying to publish tour");
+    }
+  }
+
+  public RespDemoEntity publishDemoHubNow(String rid, User user, RespCommonConfig commonConfig) {
+    entityService.getOwnershipByRIdWithAuthValidation(DemoEntity.class, rid, user);
+    try {
+      DemoEntity demoHub = entityService.getEntityForPublish(rid, TopLevelEntityType.DEMO_HUB);
+      Integer nextVersion = demoHub.getPublishedVersion() + 1;
+      entityService.copyDemoHubFilesForPublish(demoHub, nextVersion);
+      return entityService.completePublish(demoHub.getId(), nextVersion, commonConfig, Optional.empty());
+    } catch (ResponseStatusException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("Error while trying to publish demo hub", e);
+      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while trying to publish demo hub");
+    }
+  }
+
+  /*
+   * Writes the published entity file of a published entity again with the current config, the published version stays
+   * as it is. Returns false (and writes nothing) if the entity was never published.
+   */
+  public Pair<Boolean, RespDemoEntity> republishEntityNow(String rid, RespCommonConfig commonConfig) {
+    DemoEntity entity = entityService.getEntityForPublish(rid);
+    List<EntityConfigKV> entityConfigKV = entityService.getEntityConfigKV(entity.getBelongsToOrg());
+    if (entity.getLastPublishedDate() == null) return Pair.with(false, RespDemoEntity.from(entity, entityConfigKV));
+
+    Timestamp republishedAt = Utils.getCurrentUtcTimestamp();
+    ClientLogClass logClass = entityService.getClientLogClass(entity.getBelongsToOrg());
+    switch (republishEntity(entity, republishedAt, commonConfig, entityConfigKV, logClass)) {
+      case SKIPPED -> throw new ResponseStatusException(HttpStatus.CONFLICT, "Entity got published in the meantime, republish it again");
+      case FAILED -> throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong while trying to republish entity");
+      default -> {
+      }
+    }
+    entityService.markEntitiesAsRepublished(entity.getBelongsToOrg(), List.of(entity.getId()));
+    return Pair.with(true, RespDemoEntity.from(entity, entityConfigKV));
+  }
+
+  @Transactional(readOnly = true)
+  public RespPublishJob getPublishJob(Long jobId, User user) {
+    Job job = jobRepo.findByIdAndJobType(jobId, JobType.PUBLISH_TOUR)
+      .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Publish job " + jobId + " is not found"));
+    PublishTourJobInfo info = (PublishTourJobInfo) job.getInfo();
+    if (!Objects.equals(info.getOrgId(), user.getBelongsToOrg())) {
+      log.warn("User {} tried to access publish job {} of a different org", user.getId(), jobId);
+      throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Publish job does not belong to the org");
+    }
+    return RespPublishJob.from(job);
+  }
+
+  @Transactional
+  public RespRepublishJob submitOrgRepublish(User user, RespCommonConfig commonConfig) {
+    Long orgId = user.getBelongsToOrg();
+    if (orgId == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User does not belong to any org");
+    ensurePublishCapacity();
+
+    String jobKey = orgId + ":" + Utils.getShortRandomId();
+    RepublishOrgJobInfo info = RepublishOrgJobInfo.builder()
+      .key(jobKey)
+      .orgId(orgId)
+      .build();
+    Job job = jobRepo.save(Job.builder()
+      .jobType(JobType.REPUBLISH_ORG)
+      .jobKey(jobKey)
+      .processingStatus(JobProcessingStatus.Touched)
+      .info(info)
+      .build());
+
+    Long jobId = job.getId();
+    startAfterCommit(jobId, () -> runOrgRepublish(jobId, orgId, commonConfig));
+    return RespRepublishJob.from(job);
+  }
+
+  @Transactional(readOnly = true)
+  public RespRepublishJob getRepublishJob(Long jobId, User user) {
+    Job job = jobRepo.findByIdAndJobType(jobId, JobType.REPUBLISH_ORG)
+      .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Republish job " + jobId + " is not found"));
+    RepublishOrgJobInfo info = (RepublishOrgJobInfo) job.getInfo();
+    if (!Objects.equals(info.getOrgId(), user.getBelongsToOrg())) {
+      log.warn("User {} tried to access republish job {} of a different org", user.getId(), jobId);
+      throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Republish job does not belong to the org");
+    }
+    return RespRepublishJob.from(job);
+  }
+
+  /*
+   * Jobs of a node that went away in the middle of a publish are never finished, they are marked as failed so that the
+   * client stops polling.
+   */
+  @Transactional
+  @Scheduled(fixedDelay = 5 * 60 * 1000, initialDelay = 60 * 1000)
+  public void failStaleJobs() {
+    Timestamp now = Utils.getCurrentUtcTimestamp();
+    for (JobType jobType : List.of(JobType.PUBLISH_TOUR, JobType.REPUBLISH_ORG)) {
+      int failed = jobRepo.updateStatusOfJobsNotUpdatedSince(
+        jobType,
+        PENDING_STATUSES,
+        new Timestamp(now.getTime() - STALE_JOB_AFTER.toMillis()),
+        JobProcessingStatus.Failed,
+        "Publish did not finish in time",
+        now);
+      if (failed > 0) log.warn("Marked {} stale {} jobs as failed", failed, jobType);
+    }
+  }
+
+  private void runTourPublish(Long jobId, String rid, RespCommonConfig commonConfig) {
+    Job job = jobRepo.findById(jobId).orElse(null);
+    if (job == null) {
+      log.error("Publish job {} disappeared before it could run", jobId);
+      return;
+    }
+    if (job.getProcessingStatus() != JobProcessingStatus.Touched) {
+      log.warn("Publish job {} is {} already, not running it", jobId, job.getProcessingStatus());
+      return;
+    }
+    job.setProcessingStatus(JobProcessingStatus.InProcess);
+    job = jobRepo.save(job);
+
+    try {
+      Integer publishedVersion = publishTour(rid, commonConfig).getValue0();
+      PublishTourJobInfo info = ((PublishTourJobInfo) job.getInfo()).toBuilder().publishedVersion(publishedVersion).build();
+      job.setInfo(info);
+      job.setProcessingStatus(JobProcessingStatus.Processed);
+    } catch (Exception e) {
+      log.error("Publish job {} for tour {} failed", jobId, rid, e);
+      Sentry.captureException(e);
+      job.setProcessingStatus(JobProcessingStatus.Failed);
+      job.setFailureReason(e.getMessage());
+    }
+    jobRepo.save(job);
+  }
+
+  private void runOrgRepublish(Long jobId, Long orgId, RespCommonConfig commonConfig) {
+    Job job = jobRepo.findById(jobId).orElse(null);
+    if (job == null) {
+      log.error("Republish job {} disappeared before it could run", jobId);
+      return;
+    }
+    if (job.getProcessingStatus() != JobProcessingStatus.Touched) {
+      log.warn("Republish job {} is {} already, not running it", jobId, job.getProcessingStatus());
+      return;
+    }
+    job.setProcessingStatus(JobProcessingStatus.InProcess);
+    job = jobRepo.save(job);
+
+    try {
+      List<DemoEntity> entities = entityService.getPublishedEntitiesWithScreensForOrg(orgId);
+      List<EntityConfigKV> entityConfigKV = entityService.getEntityConfigKV(orgId);
+      ClientLogClass logClass = entityService.getClientLogClass(orgId);
+      Timestamp republishedAt = Utils.getCurrentUtcTimestamp();
+
+      int done = 0;
+      int failed = 0;
+      for (int from = 0; from < entities.size(); from += REPUBLISH_CHUNK_SIZE) {
+        List<DemoEntity> chunk = entities.subList(from, Math.min(from + REPUBLISH_CHUNK_SIZE, entities.size()));
+        List<Callable<RepublishResult>> republishers = chunk.stream()
+          .<Callable<RepublishResult>>map(entity -> () -> republishEntity(entity, republishedAt, commonConfig, entityConfigKV, logClass))
+          .toList();
+        List<RepublishResult> results = IoExecutor.S3.invokeAll(republishers);
+        List<Long> republishedIds = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+          switch (results.get(i)) {
+            case REPUBLISHED -> republishedIds.add(chunk.get(i).getId());
+            // Published again while the job ran, its file is newer than what the job read
+            case SKIPPED -> done++;
+            case FAILED -> failed++;
+          }
+        }
+        done += republishedIds.size();
+        entityService.markEntitiesAsRepublished(orgId, republishedIds);
+
+        RepublishOrgJobInfo info = ((RepublishOrgJobInfo) job.getInfo()).toBuilder()
+          .total(entities.size())
+          .done(done)
+          .failed(failed)
+          .build();
+        job.setInfo(info);
+        job = jobRepo.save(job);
+      }
+
+      if (failed > 0) {
+        job.setProcessingStatus(JobProcessingStatus.Failed);
+        job.setFailureReason(failed + " of " + entities.size() + " entities could not be republished");
+      } else {
+        job.setProcessingStatus(JobProcessingStatus.Processed);
+      }
+    } catch (Exception e) {
+      log.error("Republish job {} for org {} failed", jobId, orgId, e);
+      Sentry.captureException(e);
+      job.setProcessingStatus(JobProcessingStatus.Failed);
+      job.setFailureReason(e.getMessage());
+    }
+    jobRepo.save(job);
+  }
+
+  // A failed entity does not fail the rest of the org, it is counted and reported in the job
+  private RepublishResult republishEntity(DemoEntity entity, Timestamp republishedAt, RespCommonConfig commonConfig,
+                                          List<EntityConfigKV> entityConfigKV, ClientLogClass logClass) {
+    try {
+      // Read before the entity is locked
+      Optional<PublishManifest> publishManifest = entity.getEntityType() == TopLevelEntityType.TOUR
+        ? entityService.readPublishManifest(entity, entity.getPublishedVersion())
+        : Optional.empty();
+      boolean republished = entityService.republishEntity(entity, republishedAt, commonConfig, entityConfigKV, logClass, publishManifest);
+      return republished ? RepublishResult.REPUBLISHED : RepublishResult.SKIPPED;
+    } catch (Exception e) {
+      log.error("Could not republish entity {}", entity.getRid(), e);
+      Sentry.captureException(e);
+      return RepublishResult.FAILED;
+    }
+  }
+
+  private Pair<Integer, RespDemoEntity> publishTour(String rid, RespCommonConfig commonConfig) throws Exception {
+    DemoEntity demoEntity = entityService.getEntityForPublish(rid, TopLevelEntityType.TOUR);
+    Integer nextVersion = demoEntity.getPublishedVersion() + 1;
+    PublishManifest publishManifest = entityService.copyTourFilesForPublish(demoEntity, nextVersion);
+    RespDemoEntity publishedTour = entityService.completePublish(demoEntity.getId(), nextVersion, commonConfig, Optional.of(publishManifest));
+    return Pair.with(nextVersion, publishedTour);
+  }
+
+  private static void ensurePublishCapacity() {
+    if (IoExecutor.PUBLISH.isSaturated()) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many publishes in progress, try again later");
+    }
+  }
+
+  // The job is started only once its row is committed, otherwise the worker might not find it
+  private void startAfterCommit(Long jobId, Runnable job) {
+    Utils.runAfterCommit(() -> {
+      try {
+        IoExecutor.PUBLISH.execute(job);
+      } catch (RejectedExecutionException e) {
+        log.error("Could not start job {}", jobId, e);
+        jobRepo.findById(jobId).ifPresent(rejected -> {
+          rejected.setProcessingStatus(JobProcessingStatus.Failed);
+          rejected.setFailureReason("Too many publishes in progress, try again later");
+          jobRepo.save(rejected);
+        });
+      }
+    });
+  }
+
+  private enum RepublishResult {
+    REPUBLISHED,
+    SKIPPED,
+    FAILED
+  }
+}
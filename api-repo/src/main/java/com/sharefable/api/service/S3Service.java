@@ -1,81 +1,123 @@
 package com.sharefable.api.service;
 
-import com.amazonaws.HttpMethod;
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.*;
 import com.amazonaws.util.IOUtils;
 import com.sharefable.api.common.AssetFilePath;
-import org.apache.commons.lang3.time.DateUtils;
+import com.sharefable.api.common.IoExecutor;
+import com.sharefable.api.common.PooledByteArrayOutputStream;
+import com.sharefable.api.config.S3Config;
+import com.sharefable.api.service.storage.ObjectStore;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Object storage of the app. The objects are stored by the configured ObjectStore, s3 by default (see
+ * S3Config.objectStore).
+ */
 @Service
 public class S3Service {
 
-  private final AmazonS3 client;
-  private final AmazonS3 pvtClient;
+  private static final String GZIP = "gzip";
+
+  private final ObjectStore store;
+  private final S3Config s3Config;
 
   @Autowired
-  S3Service(AmazonS3 s3, @Qualifier("pvt") AmazonS3 pvtClient) {
-    this.client = s3;
-    this.pvtClient = pvtClient;
+  S3Service(ObjectStore store, S3Config s3Config) {
+    this.store = store;
+    this.s3Config = s3Config;
   }
 
-  private ObjectMetadata getS3ObjectMetadata(HashMap<String, String> assetMetadata) {
-    ObjectMetadata meta = new ObjectMetadata();
-    String contentType;
-    if ((contentType = assetMetadata.get(HttpHeaders.CONTENT_TYPE)) != null) {
-      meta.setContentType(contentType);
-      assetMetadata.remove(HttpHeaders.CONTENT_TYPE);
-    }
-    String contentEncoding;
-    if ((contentEncoding = assetMetadata.get(HttpHeaders.CONTENT_ENCODING)) != null) {
-      meta.setContentEncoding(contentEncoding);
-      assetMetadata.remove(HttpHeaders.CONTENT_ENCODING);
-    }
+  public AssetFilePath upload(AssetFilePath filePath, byte[] content, Map<String, String> assetMetadata) {
+    store.put(filePath, new ByteArrayInputStream(content), content.length, assetMetadata);
+    return filePath;
+  }
 
-    String cacheControl;
-    if ((cacheControl = assetMetadata.get(HttpHeaders.CACHE_CONTROL)) != null) {
-      meta.setCacheControl(cacheControl);
-      assetMetadata.remove(HttpHeaders.CACHE_CONTROL);
-    }
+  // See ObjectStore.putIfMatch
+  public AssetFilePath uploadIfMatch(AssetFilePath filePath, byte[] content, Map<String, String> assetMetadata, String expectedETag) {
+    store.putIfMatch(filePath, new ByteArrayInputStream(content), content.length, assetMetadata, expectedETag);
+    return filePath;
+  }
 
+  /*
+   * Uploads a json file. Files bigger than the configured threshold are stored gzip compressed with Content-Encoding
+   * set, browsers (and the cdn) decompress them transparently and getObjectContent decompresses them for server side
+   * reads.
+   */
+  public AssetFilePath uploadJson(AssetFilePath filePath, byte[] content, Map<String, String> assetMetadata) {
+    EncodedContent encoded = encodeJson(content);
+    return upload(filePath, encoded.bytes(), encoded.withEncoding(assetMetadata));
+  }
 
-    for (Map.Entry<String, String> metadata : assetMetadata.entrySet()) {
-      meta.addUserMetadata(metadata.getKey(), metadata.getValue());
+  /*
+   * Same as uploadJson(filePath, byte[], ...) for content that is serialized by the writer. The writer writes into a
+   * pooled buffer that is uploaded (or compressed into another pooled buffer) as is, so the content is never turned
+   * into a String or copied into intermediate arrays.
+   */
+  public AssetFilePath uploadJson(AssetFilePath filePath, ContentWriter writer, Map<String, String> assetMetadata) throws IOException {
+    PooledByteArrayOutputStream content = PooledByteArrayOutputStream.acquire();
+    try {
+      writer.writeTo(content);
+      if (content.size() < s3Config.getCompressionThresholdBytes()) {
+        store.put(filePath, content.toInputStream(), content.size(), assetMetadata);
+        return filePath;
+      }
+
+      PooledByteArrayOutputStream compressed = PooledByteArrayOutputStream.acquire();
+      try {
+        try (GZIPOutputStream gzip = new LeveledGZIPOutputStream(compressed, s3Config.getCompressionLevel())) {
+          content.writeTo(gzip);
+        }
+        Map<String, String> metadata = new HashMap<>(assetMetadata);
+        metadata.put(HttpHeaders.CONTENT_ENCODING, GZIP);
+        store.put(filePath, compressed.toInputStream(), compressed.size(), metadata);
+        return filePath;
+      } finally {
+        compressed.release();
+      }
+    } finally {
+      content.release();
     }
-
-    return meta;
   }
 
-  public AssetFilePath upload(AssetFilePath filePath, byte[] content, Map<String, String> assetMetadata) {
-    PutObjectRequest req = new PutObjectRequest(
-      filePath.getBucketName(),
-      filePath.getFullQualifiedPath(),
-      new ByteArrayInputStream(content),
-      getS3ObjectMetadata(new HashMap<>(assetMetadata)));
-    client.putObject(req);
+  // The bytes that uploadJson stores for the content. Compression is deterministic, same content gives same bytes.
+  public EncodedContent encodeJson(byte[] content) {
+    if (content.length < s3Config.getCompressionThresholdBytes()) return new EncodedContent(content, null);
 
-    return filePath;
+    ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4);
+    try (GZIPOutputStream gzip = new LeveledGZIPOutputStream(out, s3Config.getCompressionLevel())) {
+      gzip.write(content);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new EncodedContent(out.toByteArray(), GZIP);
   }
 
   public AssetFilePath copy(AssetFilePath fromObject, AssetFilePath toObject, Map<String, String> assetMetadata) {
-    CopyObjectRequest req = new CopyObjectRequest(
-      fromObject.getBucketName(),
-      fromObject.getFullQualifiedPath(),
-      toObject.getBucketName(),
-      toObject.getFullQualifiedPath());
-    if (assetMetadata != null) req.withNewObjectMetadata(getS3ObjectMetadata(new HashMap<>(assetMetadata)));
-    client.copyObject(req);
+    Map<String, String> metadata = null;
+    if (assetMetadata != null) {
+      // New metadata replaces all of the source's, the encoding of the content has to be carried over
+      metadata = new HashMap<>(assetMetadata);
+      if (!metadata.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+        String contentEncoding = store.head(fromObject).map(ObjectStore.ObjectInfo::contentEncoding).orElse(null);
+        if (contentEncoding != null) metadata.put(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+      }
+    }
+    store.copy(fromObject, toObject, metadata);
     return toObject;
   }
 
@@ -83,27 +125,108 @@ public class S3Service {
     return copy(fromObject, toObject, null);
   }
 
+  /*
+   * Async variants run on IoExecutor.S3, its size (and the client's max connections) bounds how many objects are in
+   * transfer at once. Called from a task already running on IoExecutor.S3 they run inline.
+   */
+  public CompletableFuture<AssetFilePath> uploadAsync(AssetFilePath filePath, byte[] content, Map<String, String> assetMetadata) {
+    return IoExecutor.S3.supplyAsync(() -> upload(filePath, content, assetMetadata));
+  }
+
+  public CompletableFuture<AssetFilePath> copyAsync(AssetFilePath fromObject, AssetFilePath toObject, Map<String, String> assetMetadata) {
+    return IoExecutor.S3.supplyAsync(() -> copy(fromObject, toObject, assetMetadata));
+  }
+
+  public CompletableFuture<byte[]> getObjectContentAsync(AssetFilePath filePath) {
+    return IoExecutor.S3.supplyAsync(() -> getObjectContent(filePath));
+  }
+
   public URL preSignedUrl(AssetFilePath filePath, String contentType) {
-    boolean pvt = filePath.isPrivateFile();
-    GeneratePresignedUrlRequest req =
-      new GeneratePresignedUrlRequest(filePath.getBucketName(), filePath.getFullQualifiedPath());
-    Date expireAt = DateUtils.addMinutes(new Date(), pvt ? 30 : 10);
-    req.setExpiration(expireAt);
-    req.setMethod(HttpMethod.PUT);
-    req.setContentType(contentType);
-    return (pvt ? pvtClient : client).generatePresignedUrl(req);
+    return store.preSignedUrl(filePath, contentType);
   }
 
   public byte[] getObjectContent(AssetFilePath filePath) throws IOException {
-    GetObjectRequest req = new GetObjectRequest(
-      filePath.getBucketName(),
-      filePath.getFullQualifiedPath()
-    );
-    S3Object object = client.getObject(req);
-    S3ObjectInputStream content = object.getObjectContent();
-    byte[] fileAsBytes = IOUtils.toByteArray(content);
-    content.close();
-    return fileAsBytes;
+    return getObject(filePath).content();
+  }
+
+  // Content (decompressed if it's stored gzip compressed) and the ETag of the stored bytes
+  public StoredObject getObject(AssetFilePath filePath) throws IOException {
+    try (ObjectStore.StoredContent stored = store.get(filePath)) {
+      byte[] fileAsBytes = IOUtils.toByteArray(decode(stored));
+      return new StoredObject(fileAsBytes, stored.info().eTag());
+    }
+  }
+
+  /*
+   * Streams the object instead of reading it into memory, decompressed if it's stored gzip compressed. The stream has
+   * to be closed.
+   */
+  public InputStream openObject(AssetFilePath filePath) throws IOException {
+    ObjectStore.StoredContent stored = store.get(filePath);
+    try {
+      return decode(stored);
+    } catch (IOException | RuntimeException e) {
+      stored.close();
+      throw e;
+    }
+  }
+
+  /*
+   * Streams the stored bytes from firstByte to lastByte (inclusive). A range of compressed content can't be decompressed
+   * on its own, hence objects stored gzip compressed are rejected.
+   */
+  public InputStream openObject(AssetFilePath filePath, long firstByte, long lastByte) throws IOException {
+    ObjectStore.StoredContent stored = store.get(filePath, new ObjectStore.ByteRange(firstByte, lastByte));
+    if (isGzipped(stored.info())) {
+      stored.close();
+      throw new IllegalArgumentException("Can't read a range of compressed object " + filePath.getFullQualifiedPath());
+    }
+    return stored.content();
+  }
+
+  private static InputStream decode(ObjectStore.StoredContent stored) throws IOException {
+    return isGzipped(stored.info()) ? new GZIPInputStream(stored.content()) : stored.content();
+  }
+
+  private static boolean isGzipped(ObjectStore.ObjectInfo info) {
+    return GZIP.equalsIgnoreCase(info.contentEncoding());
+  }
+
+  public Optional<byte[]> getObjectContentIfExists(AssetFilePath filePath) throws IOException {
+    try {
+      return Optional.of(getObjectContent(filePath));
+    } catch (ObjectStore.ObjectNotFoundException e) {
+      return Optional.empty();
+    }
+  }
+
+  // S3's ETag is the md5 of the content for objects that are not uploaded in parts, a copy keeps the ETag of the source
+  public Optional<String> getETag(AssetFilePath filePath) {
+    return store.head(filePath).map(ObjectStore.ObjectInfo::eTag);
+  }
+
+  @FunctionalInterface
+  public interface ContentWriter {
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  public record EncodedContent(byte[] bytes, String contentEncoding) {
+    public Map<String, String> withEncoding(Map<String, String> assetMetadata) {
+      if (contentEncoding == null) return assetMetadata;
+      Map<String, String> metadata = new HashMap<>(assetMetadata);
+      metadata.put(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+      return metadata;
+    }
+  }
+
+  public record StoredObject(byte[] content, String eTag) {
+  }
+
+  private static class LeveledGZIPOutputStream extends GZIPOutputStream {
+    LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+      super(out);
+      def.setLevel(level);
+    }
   }
 }
 
@@ -5,7 +5,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.sharefable.api.common.AssetFilePath;
+import com.sharefable.api.common.EntityOwnership;
 import com.sharefable.api.common.FnScreenBuilder;
+import com.sharefable.api.common.IoExecutor;
+import com.sharefable.api.common.JsonPatch;
+import com.sharefable.api.common.KeysetCursor;
 import com.sharefable.api.common.Utils;
 import com.sharefable.api.config.AppSettings;
 import com.sharefable.api.config.S3Config;
@@ -17,7 +21,10 @@ import com.sharefable.api.repo.ScreenRepo;
 import com.sharefable.api.transport.ScreenType;
 import com.sharefable.api.transport.TourDeleted;
 import com.sharefable.api.transport.req.*;
+import com.sharefable.api.transport.resp.RespPage;
+import com.sharefable.api.transport.resp.RespPatchedEdit;
 import com.sharefable.api.transport.resp.RespScreen;
+import com.sharefable.api.transport.resp.RespScreenSummary;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -27,16 +34,20 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -46,15 +57,23 @@ public class ScreenService extends ServiceBase {
   private final S3Config s3Config;
   private final S3Service s3Service;
   private final DemoEntityRepo demoEntityRepo;
+  private final PublicEntityCache publicEntityCache;
+  private final EditFileWriter editFileWriter;
+  private final CatalogueVersionService catalogueVersionService;
   ObjectMapper objectMapper = new ObjectMapper();
 
   @Autowired
-  public ScreenService(ScreenRepo screenRepo, S3Service s3Service, S3Config s3Config, DemoEntityRepo demoEntityRepo, AppSettings settings) {
+  public ScreenService(ScreenRepo screenRepo, S3Service s3Service, S3Config s3Config, DemoEntityRepo demoEntityRepo, AppSettings settings,
+                       PublicEntityCache publicEntityCache, EditFileWriter editFileWriter,
+                       CatalogueVersionService catalogueVersionService) {
     super(settings, s3Service, s3Config, screenRepo, demoEntityRepo);
     this.s3Service = s3Service;
     this.s3Config = s3Config;
     this.screenRepo = screenRepo;
     this.demoEntityRepo = demoEntityRepo;
+    this.publicEntityCache = publicEntityCache;
+    this.editFileWriter = editFileWriter;
+    this.catalogueVersionService = catalogueVersionService;
   }
 
   @Transactional
@@ -71,6 +90,7 @@ public class ScreenService extends ServiceBase {
       .responsive(false)
       .parentScreenId(req.normalizedParentId())
       .build();
+    catalogueVersionService.bump(screen.getBelongsToOrg());
 
     if (req.type() == ScreenType.Img) {
       AssetFilePath assetFilePathForImgFile = s3Config.getQualifiedPathFor(S3Config.AssetType.Screen, prefixHash, S3Config.getEntityFiles().imgFile().filename());
@@ -83,12 +103,12 @@ public class ScreenService extends ServiceBase {
         screen.setType(ScreenType.Img);
         String docTree = updateDocTree(req.body(), assetFilePathForImgFile.getS3UriToFile());
 
-        CompletableFuture<Optional<AssetFilePath>> uploadDocTree = CompletableFuture.supplyAsync(() -> Optional.ofNullable(uploadDataFileToS3(docTree, prefixHash, S3Config.getEntityFiles().screenDataFile(), S3Config.AssetType.Screen)));
-        CompletableFuture<Screen> saveScreen = CompletableFuture.supplyAsync(() -> screenRepo.save(screen));
-        CompletableFuture<Void> combinedFuture = CompletableFuture.allOf(uploadDocTree, saveScreen);
-        combinedFuture.join();
+        // The upload goes to the io executor while the row is saved from this thread, inside the request's transaction
+        CompletableFuture<Optional<AssetFilePath>> uploadDocTree = IoExecutor.S3.supplyAsync(() -> Optional.ofNullable(uploadDataFileToS3(docTree, prefixHash, S3Config.getEntityFiles().screenDataFile(), S3Config.AssetType.Screen)));
+        Screen savedScreen = screenRepo.save(screen);
+        uploadDocTree.join();
 
-        RespScreen respScreen = RespScreen.from(saveScreen.join());
+        RespScreen respScreen = RespScreen.from(savedScreen);
         respScreen.setUploadUrl(Optional.ofNullable(presignedUrlToUploadImageScreen.toString()));
         return respScreen;
       } catch (JsonProcessingException e) {
@@ -157,69 +177,95 @@ public class ScreenService extends ServiceBase {
 
   @Transactional(propagation = Propagation.MANDATORY)
   public Screen cloneScreen(FnScreenBuilder fnScreenBuilder, Screen sourceScreen, User user, DemoEntity demoEntity, Long belongsToOrg) {
+    ScreenCopyPlan plan = planScreenCopy(sourceScreen);
+    try {
+      IoExecutor.S3.invokeAll(plan.copiers());
+      Screen screen = buildClonedScreen(plan, fnScreenBuilder, user, demoEntity, belongsToOrg);
+      catalogueVersionService.bump(belongsToOrg);
+      return screenRepo.save(screen);
+    } catch (Exception e) {
+      log.error("Error while copying file from parent screen to child screen. Message: {}", e.getMessage());
+      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong");
+    }
+  }
+
+  /*
+   * Clones screens in bulk (tour duplication). Files of all the screens are copied together on the shared S3 executor,
+   * then the screens are inserted with a few multi row inserts instead of one insert (+ one join table insert) per screen.
+   * Cloned screens are returned in the order of the source screens.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public List<Screen> cloneScreens(List<Screen> sourceScreens, Function<Screen, FnScreenBuilder> fnScreenBuilderFor, User user,
+                                   DemoEntity demoEntity, Long belongsToOrg) {
+    if (sourceScreens.isEmpty()) return List.of();
+
+    List<ScreenCopyPlan> plans = sourceScreens.stream().map(this::planScreenCopy).toList();
+    List<Callable<AssetFilePath>> copiers = plans.stream().flatMap(plan -> plan.copiers().stream()).toList();
+    try {
+      IoExecutor.S3.invokeAll(copiers);
+
+      List<Screen> clonedScreens = new ArrayList<>(plans.size());
+      for (ScreenCopyPlan plan : plans) {
+        FnScreenBuilder fnScreenBuilder = fnScreenBuilderFor.apply(plan.sourceScreen());
+        clonedScreens.add(buildClonedScreen(plan, fnScreenBuilder, user, demoEntity, belongsToOrg));
+      }
+      catalogueVersionService.bump(belongsToOrg);
+      screenRepo.insertAll(clonedScreens);
+      return clonedScreens;
+    } catch (Exception e) {
+      log.error("Error while cloning {} screens. Message: {}", sourceScreens.size(), e.getMessage());
+      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong");
+    }
+  }
+
+  /*
+   * A clone shares the files of the source screen that never change after capture: the data file and the image are
+   * referred via blobPrefixHash and the thumbnail path is reused (a new thumbnail is always uploaded to a new path).
+   * Only the edit file, which is written per screen, is materialized under the clone's own prefix.
+   */
+  private ScreenCopyPlan planScreenCopy(Screen sourceScreen) {
     String prefixHash = Utils.createUuidWord();
-    AssetFilePath fromScreenFilePath = s3Config.getQualifiedPathFor(
-      S3Config.AssetType.Screen,
-      sourceScreen.getAssetPrefixHash(),
-      S3Config.getEntityFiles().screenDataFile().filename());
-    AssetFilePath fromThumbnailPath = s3Config.getQualifiedPathFor(
-      S3Config.AssetType.Common, sourceScreen.getThumbnail());
+    if (sourceScreen.getType() != ScreenType.SerDom) return new ScreenCopyPlan(sourceScreen, prefixHash, List.of());
+
     AssetFilePath fromScreenEditFilePath = s3Config.getQualifiedPathFor(
       S3Config.AssetType.Screen,
       sourceScreen.getAssetPrefixHash(),
       S3Config.getEntityFiles().editFile().filename());
-    AssetFilePath fromImgScreenFilePath = s3Config.getQualifiedPathFor(
-      S3Config.AssetType.Screen,
-      sourceScreen.getAssetPrefixHash(),
-      S3Config.getEntityFiles().imgFile().filename());
-
-    AssetFilePath toScreenFilePath = s3Config.getQualifiedPathFor(
-      S3Config.AssetType.Screen, prefixHash, S3Config.getEntityFiles().screenDataFile().filename());
-    AssetFilePath toThumbnailPath = s3Config.getQualifiedPathFor(
-      S3Config.AssetType.Common, UUID.randomUUID().toString());
-    AssetFilePath toImgScreenFilePath = s3Config.getQualifiedPathFor(
-      S3Config.AssetType.Screen, prefixHash, S3Config.getEntityFiles().imgFile().filename());
-
-    Callable<AssetFilePath> screenFileCopier = () -> s3Service.copy(fromScreenFilePath, toScreenFilePath);
-    Callable<AssetFilePath> thumbnailCopier = () -> s3Service.copy(fromThumbnailPath, toThumbnailPath);
-    Callable<AssetFilePath> imgFileCopier = () -> s3Service.copy(fromImgScreenFilePath, toImgScreenFilePath);
     Callable<AssetFilePath> editFileCopier = Utils.isParentScreen(sourceScreen)
       ? () -> uploadTemplateFileToS3(prefixHash, DATA_FILE_TYPE.SCREEN_EDIT)
       : () -> copyDataFileToS3(fromScreenEditFilePath, prefixHash, DATA_FILE_TYPE.SCREEN_EDIT);
+    return new ScreenCopyPlan(sourceScreen, prefixHash, List.of(editFileCopier));
+  }
 
-    try {
-      List<AssetFilePath> assetFiles = sourceScreen.getType() == ScreenType.SerDom
-        ? Utils.runInParallel(screenFileCopier, thumbnailCopier, editFileCopier)
-        : Utils.runInParallel(screenFileCopier, thumbnailCopier, imgFileCopier);
-      AssetFilePath thumbnailFile = assetFiles.get(1);
-
-      Screen.ScreenBuilder<?, ?> screenBuilder = Screen.builder()
-        .rid(Utils.createReadableId(sourceScreen.getDisplayName()))
-        .createdBy(user)
-        .url(sourceScreen.getUrl())
-        .displayName(sourceScreen.getDisplayName())
-        .assetPrefixHash(prefixHash)
-        .belongsToOrg(belongsToOrg)
-        .icon(sourceScreen.getIcon())
-        .responsive(sourceScreen.getResponsive())
-        .thumbnail(thumbnailFile.getFilePath())
-        .demoEntities(Set.of(demoEntity))
-        .parentScreenId(Utils.isParentScreen(sourceScreen) ? sourceScreen.getId() : sourceScreen.getParentScreenId())
-        .type(sourceScreen.getType());
-      screenBuilder = fnScreenBuilder.apply(screenBuilder);
-      Screen screen = screenBuilder.build();
-      return screenRepo.save(screen);
-    } catch (Exception e) {
-      log.error("Error while copying file from parent screen to child screen. Message: {}", e.getMessage());
-      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong");
-    }
+  private Screen buildClonedScreen(ScreenCopyPlan plan, FnScreenBuilder fnScreenBuilder, User user, DemoEntity demoEntity,
+                                   Long belongsToOrg) {
+    Screen sourceScreen = plan.sourceScreen();
+    Screen.ScreenBuilder<?, ?> screenBuilder = Screen.builder()
+      .rid(Utils.createReadableId(sourceScreen.getDisplayName()))
+      .createdBy(user)
+      .url(sourceScreen.getUrl())
+      .displayName(sourceScreen.getDisplayName())
+      .assetPrefixHash(plan.prefixHash())
+      .blobPrefixHash(Utils.blobPrefixHashOf(sourceScreen))
+      .belongsToOrg(belongsToOrg)
+      .icon(sourceScreen.getIcon())
+      .responsive(sourceScreen.getResponsive())
+      .thumbnail(sourceScreen.getThumbnail())
+      .demoEntities(Set.of(demoEntity))
+      .parentScreenId(Utils.isParentScreen(sourceScreen) ? sourceScreen.getId() : sourceScreen.getParentScreenId())
+      .type(sourceScreen.getType());
+    screenBuilder = fnScreenBuilder.apply(screenBuilder);
+    return screenBuilder.build();
+  }
+
+  private record ScreenCopyPlan(Screen sourceScreen, String prefixHash, List<Callable<AssetFilePath>> copiers) {
   }
 
   @Transactional
   public RespScreen createThumbnailFromImage(ReqThumbnailCreation body, User user) {
     Screen screen = getEntityByRIdWithAuthValidation(Screen.class, body.screenRid(), user);
 
-    String prefixHash = screen.getAssetPrefixHash();
+    String prefixHash = Utils.blobPrefixHashOf(screen);
     String base64Prefix = "data:image/jpeg;base64,";
     int newWidth = 360;
     int newHeight = 240;
@@ -227,10 +273,10 @@ public class ScreenService extends ServiceBase {
     AssetFilePath imgScreenFilePath = s3Config.getQualifiedPathFor(S3Config.AssetType.Screen, prefixHash, S3Config.getEntityFiles().imgFile().filename());
 
     try {
-      byte[] imageContent = s3Service.getObjectContent(imgScreenFilePath);
-      ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(imageContent);
-      BufferedImage originalImage = ImageIO.read(byteArrayInputStream);
-      byteArrayInputStream.close();
+      BufferedImage originalImage;
+      try (InputStream imageContent = s3Service.openObject(imgScreenFilePath)) {
+        originalImage = readImageForSize(imageContent, newWidth, newHeight);
+      }
 
       BufferedImage resizedImage = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
       Graphics2D g = resizedImage.createGraphics();
@@ -248,7 +294,9 @@ public class ScreenService extends ServiceBase {
         throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Can't save thumbnail in storage");
       }
       screen.setThumbnail(uploadedThumbnailPath.get().getFilePath());
+      catalogueVersionService.bump(screen.getBelongsToOrg());
       Screen storedScreen = screenRepo.save(screen);
+      invalidateToursOf(storedScreen);
       return RespScreen.from(storedScreen);
     } catch (IOException e) {
       log.error("Something is wrong while getting the image from s3{}", e.getMessage());
@@ -259,6 +307,28 @@ public class ScreenService extends ServiceBase {
     }
   }
 
+  /*
+   * Decodes the image streamed from storage at the lowest resolution that is still at least as big as the given size
+   * (every nth pixel, n being how many times the image is bigger). Screenshots are much bigger than thumbnails, so this
+   * keeps only a fraction of the full size image in memory.
+   */
+  private static BufferedImage readImageForSize(InputStream content, int width, int height) throws IOException {
+    try (ImageInputStream imageInput = ImageIO.createImageInputStream(content)) {
+      Iterator<ImageReader> readers = imageInput == null ? Collections.emptyIterator() : ImageIO.getImageReaders(imageInput);
+      if (!readers.hasNext()) throw new IOException("Unsupported image format");
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(imageInput, true, true);
+        int step = Math.max(1, Math.min(reader.getWidth(0) / width, reader.getHeight(0) / height));
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(step, step, 0, 0);
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
   @Transactional
   public RespScreen assignScreenToTour(ReqScreenTour body, User user) {
     Screen screen = getEntityByRIdWithAuthValidation(Screen.class, body.screenRid(), user);
@@ -267,7 +337,9 @@ public class ScreenService extends ServiceBase {
     Set<DemoEntity> demoEntities = screen.getDemoEntities();
     demoEntities.add(demoEntity);
     screen.setDemoEntities(demoEntities);
+    catalogueVersionService.bump(screen.getBelongsToOrg());
     Screen storedScreen = screenRepo.save(screen);
+    publicEntityCache.invalidateEntity(demoEntity.getId());
     return RespScreen.from(storedScreen);
   }
 
@@ -277,26 +349,59 @@ public class ScreenService extends ServiceBase {
     return screens.stream().map(RespScreen::from).collect(Collectors.toList());
   }
 
+  // See EntityService.getCatalogueETagForOrg
+  public String getCatalogueETagForOrg(Long orgId) {
+    return catalogueVersionService.getETag("screen", orgId);
+  }
+
+  @Transactional(readOnly = true)
+  public RespPage<RespScreenSummary> getScreenSummaryPageForOrg(Long orgId, Optional<String> cursor, Optional<Integer> size) {
+    KeysetCursor after = KeysetCursor.from(cursor);
+    int pageSize = KeysetCursor.pageSize(size);
+    List<RespScreenSummary> rows = screenRepo.findSummaryPageForOrg(orgId, after.updatedAt(), after.id(), KeysetCursor.pageRequestFor(pageSize));
+    return RespPage.of(rows, pageSize, row -> new KeysetCursor(row.getUpdatedAt(), row.getId()));
+  }
+
   @Transactional
   public Optional<RespScreen> getScreenByRid(String rid) {
     Optional<Screen> maybeScreen = screenRepo.findByRid(rid);
     return maybeScreen.map(RespScreen::from);
   }
 
-  @Transactional
+  @Transactional(readOnly = true)
   public RespScreen updateEditForScreen(ReqRecordEdit body, User userEntity) {
+    // The response is the full screen, hence the screen is loaded (in one query) rather than only its ownership
     Screen screen = getEntityByRIdWithAuthValidation(Screen.class, body.rid(), userEntity);
 
-    uploadDataFileToS3(
-      body.editData(),
-      screen.getAssetPrefixHash(),
+    // The file is written right away, updatedAt is written by the buffer
+    String version = editFileWriter.recordScreenEdit(
+      screen.getId(),
+      s3Config.getQualifiedPathFor(S3Config.AssetType.Screen, screen.getAssetPrefixHash(), S3Config.getEntityFiles().editFile().filename()),
       S3Config.getEntityFiles().editFile(),
-      S3Config.AssetType.Screen);
+      body.editData());
+    RespScreen resp = RespScreen.from(screen);
+    resp.setUpdatedAt(Utils.getCurrentUtcTimestamp());
+    resp.setEditVersion(version);
+    return resp;
+  }
 
-    // Updates the updatedAt
-    screen.setUpdatedAt(Utils.getCurrentUtcTimestamp());
-    Screen updatedScreen = screenRepo.save(screen);
-    return RespScreen.from(updatedScreen);
+  @Transactional(readOnly = true)
+  public RespPatchedEdit patchEditForScreen(ReqPatchEdit body, User userEntity) {
+    EntityOwnership ownership = getOwnershipByRIdWithAuthValidation(Screen.class, body.rid(), userEntity);
+
+    try {
+      String version = editFileWriter.patchScreenEdit(
+        ownership.id(),
+        s3Config.getQualifiedPathFor(S3Config.AssetType.Screen, ownership.assetPrefixHash(), S3Config.getEntityFiles().editFile().filename()),
+        S3Config.getEntityFiles().editFile(),
+        body.baseVersion(),
+        body.patch());
+      return RespPatchedEdit.builder().rid(body.rid()).version(version).updatedAt(Utils.getCurrentUtcTimestamp()).build();
+    } catch (EditFileWriter.VersionMismatchException | JsonPatch.TestFailedException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+    } catch (JsonPatch.InvalidPatchException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
   }
 
   @Transactional
@@ -305,7 +410,9 @@ public class ScreenService extends ServiceBase {
     String newName = body.newName();
     screen.setDisplayName(newName);
     screen.setRid(Utils.createReadableId(newName));
+    catalogueVersionService.bump(screen.getBelongsToOrg());
     Screen savedScreen = screenRepo.save(screen);
+    invalidateToursOf(savedScreen);
     return RespScreen.from(savedScreen);
   }
 
@@ -315,7 +422,16 @@ public class ScreenService extends ServiceBase {
     if (body.propName().equals("responsive")) {
       screen.setResponsive((Boolean) body.propValue());
     }
+    catalogueVersionService.bump(screen.getBelongsToOrg());
     Screen updatedScreen = screenRepo.save(screen);
+    invalidateToursOf(updatedScreen);
     return RespScreen.from(updatedScreen);
   }
+
+  // Screens are served as part of the tour (/tour?s=1), hence a change in a screen is a change in the tours it's part of
+  private void invalidateToursOf(Screen screen) {
+    Set<DemoEntity> demoEntities = screen.getDemoEntities();
+    if (demoEntities == null) return;
+    demoEntities.forEach(demoEntity -> publicEntityCache.invalidateEntity(demoEntity.getId()));
+  }
 }
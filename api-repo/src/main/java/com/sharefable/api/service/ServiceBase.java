@@ -1,7 +1,10 @@
 package com.sharefable.api.service;
 
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sharefable.api.common.AssetFilePath;
 import com.sharefable.api.common.DefaultThumbnail;
+import com.sharefable.api.common.EntityOwnership;
 import com.sharefable.api.common.ImageType;
 import com.sharefable.api.common.Utils;
 import com.sharefable.api.config.AppSettings;
@@ -12,6 +15,7 @@ import com.sharefable.api.entity.Screen;
 import com.sharefable.api.entity.User;
 import com.sharefable.api.repo.DemoEntityRepo;
 import com.sharefable.api.repo.ScreenRepo;
+import com.sharefable.api.service.storage.ObjectStore;
 import com.sharefable.api.transport.TourDeleted;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
@@ -22,12 +26,19 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public abstract class ServiceBase implements DefaultThumbnail {
@@ -37,6 +48,11 @@ public abstract class ServiceBase implements DefaultThumbnail {
   private static final String PATH_TO_SCHEMA_FILE_FOR_SCREEN_EDIT = "/data-schema/v=%s/screen/edits.json";
   private static final String PATH_TO_SCHEMA_FILE_FOR_DEMOHUB_INDEX = "/data-schema/v=%s/demoHub/index.json";
   private static final String PATH_TO_SCHEMA_FILE_FOR_DATASET = "/data-schema/v=%s/org/dataset.json";
+  private static final String OWNERSHIP_MEMO_KEY_PREFIX = "fable.ownership.";
+  // classpath path of template file -> content
+  private static final Map<String, byte[]> TEMPLATE_FILE_CONTENTS = new ConcurrentHashMap<>();
+  // classpath path of template file & cache policy -> canonical object in s3 that new entity files are copied from
+  private static final Map<String, CompletableFuture<AssetFilePath>> CANONICAL_TEMPLATE_FILES = new ConcurrentHashMap<>();
 
   private final S3Service s3Service;
   private final S3Config s3Config;
@@ -132,34 +148,118 @@ public abstract class ServiceBase implements DefaultThumbnail {
   @Transactional(propagation = Propagation.MANDATORY)
   public AssetFilePath uploadTemplateFileToS3(String prefixHash, DATA_FILE_TYPE type) {
     TemplateFile tFile = getTemplateFileLocFor(type);
-    String fileContent = getTemplateFileContent(tFile);
-    return uploadDataFileToS3(fileContent, prefixHash, tFile.toFile(), tFile.type());
+    AssetFilePath assetFilePath = s3Config.getQualifiedPathFor(tFile.type(), prefixHash, tFile.toFile().filename());
+    return copyTemplateFileToS3(tFile, assetFilePath);
   }
 
   public AssetFilePath uploadTemplateFileToS3(AssetFilePath assetFilePath, DATA_FILE_TYPE type) {
     TemplateFile tFile = getTemplateFileLocFor(type);
-    String fileContent = getTemplateFileContent(tFile);
-    return uploadDataFileToS3(fileContent, assetFilePath, tFile.toFile());
+    return copyTemplateFileToS3(tFile, assetFilePath);
   }
 
-  public String getTemplateFileContent(TemplateFile tFile) {
-    try (InputStream resourceAsStream = getClass().getResourceAsStream(tFile.fromPath())) {
-      if (resourceAsStream == null) {
-        log.error("No default data file is present while creating tour. Can't find schema file with path = {}", tFile.fromPath());
-        throw new RuntimeException("Can't find schema file");
+  /*
+   * New entities get their template files by a server side copy of a canonical object instead of a PUT of the template
+   * content. The canonical object is uploaded once per template file, schema version & cache policy (the copy keeps the
+   * content type and cache control of the source). If the copy fails the content is uploaded as before.
+   */
+  private AssetFilePath copyTemplateFileToS3(TemplateFile tFile, AssetFilePath toFile) {
+    String key = tFile.fromPath() + ":" + tFile.toFile().cachePolicy();
+    try {
+      return s3Service.copy(getCanonicalTemplateFile(key, tFile), toFile);
+    } catch (AmazonS3Exception | ObjectStore.ObjectStoreException | CompletionException e) {
+      log.warn("Could not copy template file {} to {}. Uploading the content instead", key, toFile.getFullQualifiedPath(), e);
+      // The canonical object might have been removed from the bucket, it's checked again on the next call
+      CANONICAL_TEMPLATE_FILES.remove(key);
+      return uploadDataFileToS3(getTemplateFileBytes(tFile), toFile, tFile.toFile());
+    }
+  }
+
+  /*
+   * The first caller for a key resolves the canonical file (HEAD and maybe PUT) outside of the map's locks, concurrent
+   * callers for the same key wait for its result instead of making their own requests. A failed resolution is not kept.
+   */
+  private AssetFilePath getCanonicalTemplateFile(String key, TemplateFile tFile) {
+    CompletableFuture<AssetFilePath> canonicalFile = CANONICAL_TEMPLATE_FILES.get(key);
+    if (canonicalFile == null) {
+      CompletableFuture<AssetFilePath> resolving = new CompletableFuture<>();
+      canonicalFile = CANONICAL_TEMPLATE_FILES.putIfAbsent(key, resolving);
+      if (canonicalFile == null) {
+        canonicalFile = resolving;
+        try {
+          resolving.complete(ensureCanonicalTemplateFile(tFile));
+        } catch (RuntimeException e) {
+          CANONICAL_TEMPLATE_FILES.remove(key, resolving);
+          resolving.completeExceptionally(e);
+        }
       }
-      return IOUtils.toString(resourceAsStream, StandardCharsets.UTF_8);
-    } catch (IOException e) {
+    }
+    return canonicalFile.join();
+  }
+
+  private AssetFilePath ensureCanonicalTemplateFile(TemplateFile tFile) {
+    byte[] content = getTemplateFileBytes(tFile);
+    String contentHash;
+    try {
+      contentHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)).substring(0, 12);
+    } catch (NoSuchAlgorithmException e) {
       throw new RuntimeException(e);
     }
+    // /data-schema/v=2023-01-10/tour/index.json -> tmpl/data-schema/v=2023-01-10/tour/index-NoCache-<hash>.json
+    String filePath = "tmpl" + StringUtils.removeEnd(tFile.fromPath(), ".json")
+      + "-" + tFile.toFile().cachePolicy() + "-" + contentHash + ".json";
+    AssetFilePath canonicalFile = s3Config.getQualifiedPathFor(S3Config.AssetType.Common, filePath);
+    // The content is part of the key, an existing object is never stale
+    if (s3Service.getETag(canonicalFile).isEmpty()) {
+      log.info("Uploading canonical template file {}", canonicalFile.getFullQualifiedPath());
+      uploadDataFileToS3(content, canonicalFile, tFile.toFile());
+    }
+    return canonicalFile;
+  }
+
+  public String getTemplateFileContent(TemplateFile tFile) {
+    return new String(getTemplateFileBytes(tFile), StandardCharsets.UTF_8);
+  }
+
+  // Template files don't change for a build, they are read from the classpath once. Callers must not modify the array.
+  private byte[] getTemplateFileBytes(TemplateFile tFile) {
+    return TEMPLATE_FILE_CONTENTS.computeIfAbsent(tFile.fromPath(), fromPath -> {
+      try (InputStream resourceAsStream = ServiceBase.class.getResourceAsStream(fromPath)) {
+        if (resourceAsStream == null) {
+          log.error("No default data file is present while creating tour. Can't find schema file with path = {}", fromPath);
+          throw new RuntimeException("Can't find schema file");
+        }
+        return IOUtils.toByteArray(resourceAsStream);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
   }
 
   public AssetFilePath uploadDataFileToS3(String content, AssetFilePath assetFilePath, S3Config.FileConfig config) {
-    Map<String, String> userDefinedMetadata = new HashMap<>(1);
+    return uploadDataFileToS3(content.getBytes(StandardCharsets.UTF_8), assetFilePath, config);
+  }
+
+  private AssetFilePath uploadDataFileToS3(byte[] content, AssetFilePath assetFilePath, S3Config.FileConfig config) {
+    s3Service.uploadJson(assetFilePath, content, getDataFileMetadata(config));
+    return assetFilePath;
+  }
+
+  // Serializes the value straight into the upload buffer, use for big files instead of writing them to a String first
+  public AssetFilePath uploadDataFileToS3(ObjectMapper mapper, Object value, String prefixHash, S3Config.FileConfig config, S3Config.AssetType assetType) throws IOException {
+    return uploadDataFileToS3(out -> mapper.writeValue(out, value), prefixHash, config, assetType);
+  }
+
+  public AssetFilePath uploadDataFileToS3(S3Service.ContentWriter writer, String prefixHash, S3Config.FileConfig config, S3Config.AssetType assetType) throws IOException {
+    AssetFilePath assetFilePath = s3Config.getQualifiedPathFor(assetType, prefixHash, config.filename());
+    s3Service.uploadJson(assetFilePath, writer, getDataFileMetadata(config));
+    return assetFilePath;
+  }
+
+  private Map<String, String> getDataFileMetadata(S3Config.FileConfig config) {
+    Map<String, String> userDefinedMetadata = new HashMap<>(2);
     userDefinedMetadata.put(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
     userDefinedMetadata.put(HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(config.cachePolicy()));
-    s3Service.upload(assetFilePath, content.getBytes(StandardCharsets.UTF_8), userDefinedMetadata);
-    return assetFilePath;
+    return userDefinedMetadata;
   }
 
   public AssetFilePath uploadDataFileToS3(String content, String prefixHash, S3Config.FileConfig config, S3Config.AssetType assetType) {
@@ -167,6 +267,42 @@ public abstract class ServiceBase implements DefaultThumbnail {
     return uploadDataFileToS3(content, assetFilePath, config);
   }
 
+  /*
+   * Authorizes access to an entity by looking at a narrow projection of it. The projection is memoized for the lifetime
+   * of the current request, so a request checking the same rid more than once hits the db only once.
+   * Use getEntityByRIdWithAuthValidation only when the full entity is required (i.e. when the entity is mutated).
+   */
+  public <T extends EntityBaseWithOwnership> EntityOwnership getOwnershipByRIdWithAuthValidation(Class<T> cls, String rid, User user) {
+    String entityType;
+    if (cls.isAssignableFrom(Screen.class)) {
+      entityType = "screen";
+    } else if (cls.isAssignableFrom(DemoEntity.class)) {
+      entityType = "tour";
+    } else {
+      throw new IllegalArgumentException("{} not yet supported" + cls.getName());
+    }
+
+    String memoKey = OWNERSHIP_MEMO_KEY_PREFIX + entityType + ":" + rid;
+    RequestAttributes reqAttrs = RequestContextHolder.getRequestAttributes();
+    EntityOwnership ownership = reqAttrs == null ? null : (EntityOwnership) reqAttrs.getAttribute(memoKey, RequestAttributes.SCOPE_REQUEST);
+    if (ownership == null) {
+      Optional<EntityOwnership> maybeOwnership = entityType.equals("screen")
+        ? screenRepo.findOwnershipByRid(rid)
+        : demoEntityRepo.findOwnershipByRid(rid);
+
+      if (maybeOwnership.isEmpty()) {
+        log.error("Can't update edit or retrieve analytics for {} {} as it's not found", entityType, rid);
+        throw new ResponseStatusException(HttpStatus.FORBIDDEN, "");
+      }
+      ownership = maybeOwnership.get();
+      if (reqAttrs != null) reqAttrs.setAttribute(memoKey, ownership, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    validateAccess(entityType, rid, ownership.deleted(), ownership.belongsToOrg(), user);
+    return ownership;
+  }
+
+  // Loads the entity (with its eagerly fetched associations) in one query and authorizes the access on it
   public <T extends EntityBaseWithOwnership> T getEntityByRIdWithAuthValidation(Class<T> cls, String rid, User user) {
     Optional<? extends EntityBaseWithOwnership> maybeEntity;
     String entityType;
@@ -185,20 +321,22 @@ public abstract class ServiceBase implements DefaultThumbnail {
       throw new ResponseStatusException(HttpStatus.FORBIDDEN, "");
     }
 
-    if (entityType.equals("tour")) {
-      DemoEntity demoEntity = (DemoEntity) maybeEntity.get();
-      if (demoEntity.getDeleted() == TourDeleted.DELETED) {
-        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Tour with rid " + rid + " is not found");
-      }
+    EntityBaseWithOwnership entity = maybeEntity.get();
+    TourDeleted deleted = entity instanceof DemoEntity demoEntity ? demoEntity.getDeleted() : null;
+    validateAccess(entityType, rid, deleted, entity.getBelongsToOrg(), user);
+    return (T) entity;
+  }
+
+  private static void validateAccess(String entityType, String rid, TourDeleted deleted, Long belongsToOrg, User user) {
+    if (deleted == TourDeleted.DELETED) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Tour with rid " + rid + " is not found");
     }
 
-    EntityBaseWithOwnership entity = maybeEntity.get();
-    if (!Objects.equals(entity.getBelongsToOrg(), user.getBelongsToOrg())) {
+    if (!Objects.equals(belongsToOrg, user.getBelongsToOrg())) {
       log.error("Can't update edit or retrieve analytics for {} {} as it's belong to different org. Requested by user {}, belongs to org {}",
-        entityType, rid, user.getId(), entity.getBelongsToOrg());
+        entityType, rid, user.getId(), belongsToOrg);
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not enough permission");
     }
-    return (T) entity;
   }
 
   public enum DATA_FILE_TYPE {
@@ -0,0 +1,31 @@
+package com.sharefable.api.service;
+
+import com.sharefable.api.common.StatsSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/*
+ * Logs the counters of every StatsSource bean as one line per source so that hit rates and queue depths can be tracked
+ * from the logs.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatsLogger {
+  private final List<StatsSource> sources;
+
+  @Scheduled(fixedDelay = 5 * 60 * 1000, initialDelay = 5 * 60 * 1000)
+  public void logStats() {
+    for (StatsSource source : sources) {
+      try {
+        log.info("stats {} {}", source.statsName(), source.stats());
+      } catch (Exception e) {
+        log.error("Could not read stats of {}", source.statsName(), e);
+      }
+    }
+  }
+}
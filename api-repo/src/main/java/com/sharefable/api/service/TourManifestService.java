@@ -0,0 +1,172 @@
+package com.sharefable.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharefable.api.common.IoExecutor;
+import com.sharefable.api.common.ManifestScreen;
+import com.sharefable.api.common.StatsSource;
+import com.sharefable.api.config.AppConfig;
+import com.sharefable.api.config.AppSettings;
+import com.sharefable.api.config.IoExecutorLifecycle;
+import com.sharefable.api.config.S3Config;
+import com.sharefable.api.entity.DemoEntity;
+import com.sharefable.api.repo.DemoEntityRepo;
+import com.sharefable.api.repo.ScreenRepo;
+import com.sharefable.api.transport.ScreenAssets;
+import com.sharefable.api.transport.TourDeleted;
+import com.sharefable.api.transport.TourManifest;
+import io.sentry.Sentry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Generates the manifest file (name, url and screen assets) of published tours in the background.
+ *
+ * Requests are coalesced per tour: a tour is queued at most once, and a request that comes in while the tour's manifest
+ * is being generated makes it run once more after the current run. Every run reads the latest state of the tour, so the
+ * last write always ends up in the manifest and two runs for the same tour never overlap.
+ */
+@Service
+@DependsOn(IoExecutorLifecycle.BEAN_NAME)
+@Slf4j
+public class TourManifestService extends ServiceBase implements StatsSource {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final DemoEntityRepo demoEntityRepo;
+  private final ScreenRepo screenRepo;
+  private final S3Config s3Config;
+  private final AppConfig appConfig;
+  private final Map<Long, State> states = new ConcurrentHashMap<>();
+  private final AtomicLong requested = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong succeeded = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  @Autowired
+  public TourManifestService(AppSettings settings, S3Service s3Service, S3Config s3Config, ScreenRepo screenRepo,
+                             DemoEntityRepo demoEntityRepo, AppConfig appConfig) {
+    super(settings, s3Service, s3Config, screenRepo, demoEntityRepo);
+    this.demoEntityRepo = demoEntityRepo;
+    this.screenRepo = screenRepo;
+    this.s3Config = s3Config;
+    this.appConfig = appConfig;
+  }
+
+  /*
+   * Queues generation of the tour's manifest. When called inside a transaction the tour is queued once the transaction
+   * commits, so that the run sees what the transaction wrote.
+   */
+  public void enqueue(Long demoEntityId) {
+    requested.incrementAndGet();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          schedule(demoEntityId);
+        }
+      });
+    } else {
+      schedule(demoEntityId);
+    }
+  }
+
+  @Override
+  public String statsName() {
+    return "tourManifests";
+  }
+
+  @Override
+  public Stats stats() {
+    return new Stats(states.size(), requested.get(), coalesced.get(), succeeded.get(), failed.get());
+  }
+
+  private void schedule(Long demoEntityId) {
+    boolean[] queued = {false};
+    states.compute(demoEntityId, (id, state) -> {
+      if (state == null) {
+        queued[0] = true;
+        return State.QUEUED;
+      }
+      coalesced.incrementAndGet();
+      return state == State.RUNNING ? State.RUNNING_DIRTY : state;
+    });
+    if (!queued[0]) return;
+    // Runs on its own executor that rejects when full, manifests must never be generated on the (request) thread that
+    // queued them
+    try {
+      IoExecutor.MANIFEST.execute(() -> run(demoEntityId));
+    } catch (RejectedExecutionException e) {
+      // Nothing is going to run for the tour, the next request has to queue it again
+      states.remove(demoEntityId, State.QUEUED);
+      failed.incrementAndGet();
+      log.error("Could not queue manifest of tour {}", demoEntityId, e);
+      Sentry.captureException(e);
+    }
+  }
+
+  private void run(Long demoEntityId) {
+    State next;
+    do {
+      states.put(demoEntityId, State.RUNNING);
+      try {
+        uploadTourManifestToS3(demoEntityId);
+        succeeded.incrementAndGet();
+      } catch (Exception e) {
+        failed.incrementAndGet();
+        log.error("Could not upload manifest of tour {}", demoEntityId, e);
+        Sentry.captureException(e);
+      }
+      next = states.compute(demoEntityId, (id, state) -> state == State.RUNNING_DIRTY ? State.QUEUED : null);
+    } while (next == State.QUEUED);
+  }
+
+  private void uploadTourManifestToS3(Long demoEntityId) throws Exception {
+    Optional<DemoEntity> maybeDemoEntity = demoEntityRepo.findById(demoEntityId);
+    if (maybeDemoEntity.isEmpty() || maybeDemoEntity.get().getDeleted() == TourDeleted.DELETED) return;
+    DemoEntity demoEntity = maybeDemoEntity.get();
+
+    String commonAssetPath = s3Config.getPathConfigForClient().commonAsset();
+    List<ScreenAssets> screenAssets = new ArrayList<>();
+    for (ManifestScreen screen : screenRepo.findManifestScreensOfEntity(demoEntityId)) {
+      if (StringUtils.isBlank(screen.thumbnail())) continue;
+      screenAssets.add(ScreenAssets.builder()
+        .name(screen.displayName())
+        .url(screen.url())
+        .thumbnail(commonAssetPath + screen.thumbnail())
+        .icon(screen.icon())
+        .build());
+    }
+    TourManifest tourManifest = TourManifest.builder()
+      .version(1)
+      .name(demoEntity.getDisplayName())
+      .url(appConfig.getUrlForDemo() + "/" + demoEntity.getRid())
+      .screenAssets(screenAssets)
+      .build();
+    uploadDataFileToS3(objectMapper, tourManifest, demoEntity.getRid(), S3Config.getEntityFiles().manifestFile(), S3Config.AssetType.PublishedTour);
+    // Currently gif creation runs into problem since the container size is pretty small it runs into oom
+    // uncomment this code if gif creation is needed and oom is fixed.
+    // mediaProcessingService.generateDemoGif(tour, manifestPath, s3Config.getQualifiedPathFor(S3Config.AssetType.PublishedTour, tour.getRid(), "demo.gif"));
+  }
+
+  private enum State {
+    QUEUED,
+    RUNNING,
+    // Requested again while running
+    RUNNING_DIRTY
+  }
+
+  public record Stats(int pending, long requested, long coalesced, long succeeded, long failed) {
+  }
+}
@@ -2,6 +2,9 @@ package com.sharefable.api.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharefable.api.common.CacheInvalidationScope;
+import com.sharefable.api.common.ExpiringLruCache;
+import com.sharefable.api.common.StatsSource;
 import com.sharefable.api.common.UnauthorizedReason;
 import com.sharefable.api.common.Utils;
 import com.sharefable.api.config.OrgContext;
@@ -19,26 +22,36 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
+import java.time.Duration;
+import java.util.*;
 
 @Slf4j
 @Service
 @Qualifier("userService")
 @RequiredArgsConstructor
-public class UserService {
+public class UserService implements CacheInvalidationService.Listener, StatsSource {
+  private static final int PRINCIPAL_CACHE_MAX_SIZE = 10_000;
+  private static final Duration PRINCIPAL_CACHE_TTL = Duration.ofMinutes(5);
+
   private final UserRepo userRepo;
   private final NfHookService nfHookService;
   private final SubscriptionService subService;
+  private final CacheInvalidationService cacheInvalidationService;
+  // Resolved principal for (jwt subject, org id from OrgContext). Values are detached snapshots, hence never handed out
+  // directly; every hit returns a fresh copy so that a request mutating its principal does not leak into the cache.
+  private final ExpiringLruCache<PrincipalKey, User> principalCache = new ExpiringLruCache<>(PRINCIPAL_CACHE_MAX_SIZE, PRINCIPAL_CACHE_TTL);
 
   ObjectMapper objectMapper = new ObjectMapper();
 
   // used from AuthUser annotation
   public User getOrCreateUserFromJwt(Jwt jwt) throws JsonProcessingException {
-    UserClaimFromAuth0 userClaimFromAuth0 = getUserClaimsFromAuth0(jwt);
     String subject = jwt.getSubject();
+    Long orgId = OrgContext.getCurrentOrgId();
+    PrincipalKey principalKey = new PrincipalKey(subject, orgId);
+    Optional<User> cachedUser = principalCache.get(principalKey);
+    if (cachedUser.isPresent()) return detachedCopyOf(cachedUser.get());
+
+    UserClaimFromAuth0 userClaimFromAuth0 = getUserClaimsFromAuth0(jwt);
     User user = userRepo.findUserByEmail(userClaimFromAuth0.email())
       .orElseGet(() -> createNewUser(userClaimFromAuth0, subject));
 
@@ -52,13 +65,64 @@ public class UserService {
       ));
     }
 
-    Long orgId = OrgContext.getCurrentOrgId();
     User updatedUser = setLatestOrgForUser(user, orgId);
 
     // If the user is deactivated any new auth attempt would mark the user as active.
     // This is not ideal but for the timebeing this would do.
     // Ideally any nonactive user has zero role based permission.
-    return setUserActiveOrInactive(updatedUser, true);
+    User resolvedUser = setUserActiveOrInactive(updatedUser, true);
+    principalCache.put(principalKey, detachedCopyOf(resolvedUser));
+    return resolvedUser;
+  }
+
+  // Must be called whenever a user's org assignment, activation or profile changes so that the next authenticated
+  // request resolves the principal from db again. Cached principals are evicted on all nodes once the transaction
+  // commits, see CacheInvalidationService.
+  public void evictPrincipal(Long userId) {
+    cacheInvalidationService.invalidate(CacheInvalidationScope.USER, userId);
+  }
+
+  public void evictPrincipalsForOrg(Long orgId) {
+    cacheInvalidationService.invalidate(CacheInvalidationScope.ORG_MEMBERS, orgId);
+  }
+
+  @Override
+  public void onInvalidation(CacheInvalidationScope scope, Long scopeId) {
+    switch (scope) {
+      case USER -> principalCache.invalidateIf((key, user) -> Objects.equals(user.getId(), scopeId));
+      case ORG_MEMBERS -> principalCache.invalidateIf((key, user) -> Objects.equals(user.getBelongsToOrg(), scopeId)
+        || (user.getOrgs() != null && user.getOrgs().stream().anyMatch(org -> Objects.equals(org.getId(), scopeId))));
+      default -> {
+      }
+    }
+  }
+
+  @Override
+  public String statsName() {
+    return "principalCache";
+  }
+
+  @Override
+  public ExpiringLruCache.Stats stats() {
+    return principalCache.stats();
+  }
+
+  private static User detachedCopyOf(User user) {
+    User copy = User.builder()
+      .authId(user.getAuthId())
+      .firstName(user.getFirstName())
+      .lastName(user.getLastName())
+      .email(user.getEmail())
+      .avatar(user.getAvatar())
+      .domainBlacklisted(user.getDomainBlacklisted())
+      .belongsToOrg(user.getBelongsToOrg())
+      .active(user.getActive())
+      .orgs(user.getOrgs() == null ? null : new HashSet<>(user.getOrgs()))
+      .build();
+    copy.setId(user.getId());
+    copy.setCreatedAt(user.getCreatedAt());
+    copy.setUpdatedAt(user.getUpdatedAt());
+    return copy;
   }
 
   public UserClaimFromAuth0 getUserClaimsFromAuth0(Jwt jwt) throws JsonProcessingException {
@@ -72,6 +136,7 @@ public class UserService {
     if (isActive == user.getActive()) return user;
     user.setActive(isActive);
     User changedUser = userRepo.save(user);
+    evictPrincipal(changedUser.getId());
     subService.updateNoOfSeatInSubscription(user.getBelongsToOrg());
     return changedUser;
   }
@@ -149,6 +214,9 @@ public class UserService {
     return user;
   }
 
+  private record PrincipalKey(String subject, Long orgId) {
+  }
+
   public record UserClaimFromAuth0(String picture, String email, String familyName, String givenName) {
   }
 }
@@ -51,6 +51,9 @@ public class WorkspaceService extends ServiceBase {
   private final AwsAmplifyCustomDomainService customDomainService;
   private final EntityConfigService entityConfigService;
   private final SubscriptionService subscriptionService;
+  private final ApiKeyRegistry apiKeyRegistry;
+  private final PublicEntityCache publicEntityCache;
+  private final CatalogueVersionService catalogueVersionService;
   private final AppSettings settings;
   private final ObjectMapper mapper = new ObjectMapper();
 
@@ -69,7 +72,10 @@ public class WorkspaceService extends ServiceBase {
                           EntityConfigKVRepo entityConfigKVRepo,
                           AwsAmplifyCustomDomainService customDomainService,
                           EntityConfigService entityConfigService,
-                          SubscriptionService subscriptionService) {
+                          SubscriptionService subscriptionService,
+                          ApiKeyRegistry apiKeyRegistry,
+                          PublicEntityCache publicEntityCache,
+                          CatalogueVersionService catalogueVersionService) {
     super(settings, s3Service, s3Config, screenRepo, demoEntityRepo);
     this.orgRepo = orgRepo;
     this.userRepo = userRepo;
@@ -84,6 +90,9 @@ public class WorkspaceService extends ServiceBase {
     this.customDomainService = customDomainService;
     this.entityConfigService = entityConfigService;
     this.subscriptionService = subscriptionService;
+    this.apiKeyRegistry = apiKeyRegistry;
+    this.publicEntityCache = publicEntityCache;
+    this.catalogueVersionService = catalogueVersionService;
   }
 
   // is in the format test CNAME d3uxmturbrrjns.cloudfront.net
@@ -99,8 +108,16 @@ public class WorkspaceService extends ServiceBase {
     );
   }
 
+  // Principals resolved via @AuthUser might be served from cache as detached snapshots. Any write on the user goes
+  // through the managed instance so that stale org associations are never merged back.
+  private User managedUser(User principal) {
+    if (principal.getId() == null) return principal;
+    return userRepo.findById(principal.getId()).orElse(principal);
+  }
+
   @Transactional
-  public RespOrg createNewOrgAndAssignUserToIt(ReqNewOrg body, User user) {
+  public RespOrg createNewOrgAndAssignUserToIt(ReqNewOrg body, User principal) {
+    User user = managedUser(principal);
     Pair<String, Boolean> domainInf = Utils.getDomainFromEmailForRespectiveEmail(user.getEmail());
     String emailDomain = domainInf.getValue0();
 
@@ -135,6 +152,7 @@ public class WorkspaceService extends ServiceBase {
 
     user.setBelongsToOrg(savedOrg.getId());
     userRepo.save(user);
+    userService.evictPrincipal(user.getId());
 
     return RespOrg.from(savedOrg);
   }
@@ -147,10 +165,14 @@ public class WorkspaceService extends ServiceBase {
    *  this format is not implement here
    */
   @Transactional
-  public RespUser updateUserFirstAndLastName(ReqUpdateUser body, User user) {
+  public RespUser updateUserFirstAndLastName(ReqUpdateUser body, User principal) {
+    User user = managedUser(principal);
     user.setFirstName(body.firstName());
     user.setLastName(body.lastName());
+    // The name is listed with the tours and screens the user created
+    catalogueVersionService.bump(user.getBelongsToOrg());
     User savedUser = userRepo.save(user);
+    userService.evictPrincipal(savedUser.getId());
 
     if (StringUtils.isNotBlank(savedUser.getFirstName())) {
       userService.sendUserNf(savedUser.getEmail(), savedUser.getFirstName(), savedUser.getLastName());
@@ -175,7 +197,8 @@ public class WorkspaceService extends ServiceBase {
   }
 
   @Transactional
-  public RespUser assignUserToImplicitOrg(User user) {
+  public RespUser assignUserToImplicitOrg(User principal) {
+    User user = managedUser(principal);
     Pair<String, Boolean> domainInf = Utils.getDomainFromEmailForRespectiveEmail(user.getEmail());
     String emailDomain = domainInf.getValue0();
     Set<Org> orgs = orgRepo.findOrgByDomain(emailDomain);
@@ -185,6 +208,7 @@ public class WorkspaceService extends ServiceBase {
       user.setBelongsToOrg(org.getId());
       user.setOrgs(orgs);
       userRepo.save(user);
+      userService.evictPrincipal(user.getId());
     } else {
       log.error("No org present but call to assignUserToImplicitOrg is done by user {}", user);
     }
@@ -215,6 +239,8 @@ public class WorkspaceService extends ServiceBase {
     EntityConfigKV entityConfigKV = entityConfigService.getEntityConfig(ConfigEntityType.Org, user.getBelongsToOrg(), EntityConfigConfigType.GLOBAL_OPTS);
     entityConfigKV.setConfigVal(body.editData());
     EntityConfigKV savedEntityConfigKv = entityConfigKVRepo.save(entityConfigKV);
+    // Global opts are served along with every tour / demo hub of the org
+    publicEntityCache.invalidateOrg(user.getBelongsToOrg());
 
     return RespGlobalOpts.builder().globalOpts(savedEntityConfigKv.getConfigVal()).build();
   }
@@ -312,11 +338,12 @@ public class WorkspaceService extends ServiceBase {
     List<ApiKey> inactiveKeys = apiKeys.stream().filter(ApiKey::getActive).peek(key -> key.setActive(false)).toList();
     newKey = apiKeyRepo.save(newKey);
     apiKeyRepo.saveAll(inactiveKeys);
+    apiKeyRegistry.keysChanged(org.get().getId());
     return RespApiKey.from(newKey);
   }
 
-  public ApiKey getApiKey(String apiKey) {
-    return apiKeyRepo.getApiKeyByApiKeyAndActiveIsTrue(apiKey);
+  public Optional<Long> getOrgIdForApiKey(String apiKey) {
+    return apiKeyRegistry.getOrgIdForActiveKey(apiKey);
   }
 
   public RespApiKey getActiveApiKeysForOrg(Long orgId) {
@@ -332,6 +359,7 @@ public class WorkspaceService extends ServiceBase {
     Org org = maybeOrg.get();
     org.setInfo(updateOrg.orgInfo());
     Org savedOrg = orgRepo.save(org);
+    userService.evictPrincipalsForOrg(savedOrg.getId());
     return RespOrg.from(savedOrg);
   }
 
@@ -365,7 +393,8 @@ public class WorkspaceService extends ServiceBase {
   }
 
   @Transactional
-  public Pair<RespUser, RespOrg> assignOrgToUser(ReqAssignOrgToUser body, User user) {
+  public Pair<RespUser, RespOrg> assignOrgToUser(ReqAssignOrgToUser body, User principal) {
+    User user = managedUser(principal);
     Optional<Org> maybeOrg = orgRepo.findById(body.orgId());
     if (maybeOrg.isEmpty()) return Pair.with(RespUser.from(user), RespOrg.Empty());
 
@@ -374,6 +403,7 @@ public class WorkspaceService extends ServiceBase {
     user.setBelongsToOrg(maybeOrg.get().getId());
     user.setOrgs(orgs);
     User savedUser = userRepo.save(user);
+    userService.evictPrincipal(savedUser.getId());
     subscriptionService.updateNoOfSeatInSubscription(body.orgId());
     return Pair.with(RespUser.from(savedUser), RespOrg.from(maybeOrg.get()));
   }
@@ -635,6 +665,7 @@ public class WorkspaceService extends ServiceBase {
       HttpHeaders.CACHE_CONTROL, S3Config.getCachePolicyStr(S3Config.getEntityFiles().datasetFile().cachePolicy())));
 
     entityConfigKVRepo.save(entityConfigKV);
+    publicEntityCache.invalidateOrg(user.getBelongsToOrg());
     return RespDataset.from(dataset, user.getBelongsToOrg());
   }
 
@@ -713,7 +744,9 @@ public class WorkspaceService extends ServiceBase {
       .configVal(dataset)
       .build();
 
-    return entityConfigKVRepo.save(entityConfigKV);
+    EntityConfigKV savedEntityConfigKV = entityConfigKVRepo.save(entityConfigKV);
+    publicEntityCache.invalidateOrg(orgId);
+    return savedEntityConfigKV;
   }
 
   @Transactional
@@ -745,6 +778,7 @@ public class WorkspaceService extends ServiceBase {
       orgId,
       EntityConfigConfigType.DATASET,
       datasetName);
+    publicEntityCache.invalidateOrg(orgId);
 
     return entityConfigKVRepo.findEntityConfigKVSByEntityTypeAndEntityIdAndConfigTypeIn(ConfigEntityType.Org, orgId, Set.of(EntityConfigConfigType.DATASET)).stream()
       .map(entity -> mapper.convertValue(entity.getConfigVal(), Dataset.class))
@@ -769,6 +803,7 @@ public class WorkspaceService extends ServiceBase {
     entityConfigKV.setConfigVal(dataset);
 
     entityConfigKVRepo.save(entityConfigKV);
+    publicEntityCache.invalidateOrg(orgId);
     return RespDataset.from(dataset, orgId);
   }
 
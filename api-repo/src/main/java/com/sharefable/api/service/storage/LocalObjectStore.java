@@ -0,0 +1,347 @@
+package com.sharefable.api.service.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharefable.api.common.AssetFilePath;
+import org.springframework.http.HttpHeaders;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Object store on the local disk, used for load tests / benchmarks (no network in the way) and by self hosted setups
+ * that don't use s3. An object lives at <root>/<bucket>/<full qualified path>, its metadata (and ETag) in a sidecar at
+ * <root>/.meta/<bucket>/<full qualified path>.json.
+ *
+ * Objects and sidecars are written to a temp file that is moved in place, so readers never see a partial file. The
+ * sidecar records the version of the object file it was written for (inode, size and mtime, which the move keeps) and
+ * is moved in place before the object. A sidecar that doesn't match the object (the write got interrupted between the
+ * two moves, or raced with another write of the object) or is missing is not used: the ETag is derived from the content
+ * and the encoding from the gzip magic bytes. Copies are done with FileChannel.transferTo and reads are served from a
+ * memory mapped file. putIfMatch is atomic within this process only, the store is not meant to be shared by nodes.
+ *
+ * Uploads from the client are made against publicUrl/<bucket>/<full qualified path>, a file server that accepts PUTs
+ * (e.g. nginx with webdav) has to serve the root directory there. The same server serves the files to the clients via
+ * the cdn config. Upload urls carry an expiry and an HMAC-SHA256 signature of the method, path, content type and expiry;
+ * the file server has to check them with isValidUploadUrl before accepting a PUT (nginx: auth_request to
+ * Routes.LOCAL_STORE_UPLOAD_AUTH).
+ */
+public class LocalObjectStore implements ObjectStore {
+  private static final String META_DIR = ".meta";
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+  private static final String EXPIRES_PARAM = "expires";
+  private static final String SIGNATURE_PARAM = "signature";
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final Path root;
+  private final String publicUrl;
+  private final SecretKeySpec signingKey;
+  private final Clock clock;
+  // Held only while a written object (and its sidecar) is moved in place, never while the content is written
+  private final Object[] moveLocks = new Object[64];
+
+  public LocalObjectStore(Path root, String publicUrl, String signingKey) {
+    this(root, publicUrl, signingKey, Clock.systemUTC());
+  }
+
+  LocalObjectStore(Path root, String publicUrl, String signingKey, Clock clock) {
+    if (signingKey == null || signingKey.isBlank()) throw new IllegalArgumentException("Signing key of local object store is not set");
+    this.root = root.toAbsolutePath().normalize();
+    this.publicUrl = publicUrl;
+    this.signingKey = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    this.clock = clock;
+    for (int i = 0; i < moveLocks.length; i++) moveLocks[i] = new Object();
+  }
+
+  private Path objectPath(AssetFilePath filePath) {
+    Path path = root.resolve(filePath.getBucketName()).resolve(stripLeadingSlash(filePath.getFullQualifiedPath())).normalize();
+    if (!path.startsWith(root.resolve(filePath.getBucketName())) || path.startsWith(root.resolve(META_DIR))) {
+      throw new IllegalArgumentException("Invalid object path " + filePath.getFullQualifiedPath());
+    }
+    return path;
+  }
+
+  private Path metaPath(AssetFilePath filePath) {
+    return root.resolve(META_DIR).resolve(filePath.getBucketName()).resolve(stripLeadingSlash(filePath.getFullQualifiedPath()) + ".json");
+  }
+
+  private static String stripLeadingSlash(String path) {
+    return path.startsWith("/") ? path.substring(1) : path;
+  }
+
+  @Override
+  public void put(AssetFilePath filePath, InputStream content, long contentLength, Map<String, String> metadata) {
+    put(filePath, content, metadata, null);
+  }
+
+  @Override
+  public void putIfMatch(AssetFilePath filePath, InputStream content, long contentLength, Map<String, String> metadata, String expectedETag) {
+    put(filePath, content, metadata, Objects.requireNonNull(expectedETag));
+  }
+
+  // The object is checked against expectedETag (when not null) and moved in place under the lock of its path
+  private void put(AssetFilePath filePath, InputStream content, Map<String, String> metadata, String expectedETag) {
+    Path path = objectPath(filePath);
+    try {
+      MessageDigest md5 = MessageDigest.getInstance("MD5");
+      Path tmp = tempFileFor(path);
+      try {
+        Files.copy(new DigestInputStream(content, md5), tmp, StandardCopyOption.REPLACE_EXISTING);
+        synchronized (lockFor(path)) {
+          if (expectedETag != null && !expectedETag.equals(currentETag(filePath, path))) {
+            throw new PreconditionFailedException(filePath, null);
+          }
+          writeMeta(filePath, new Meta(new HashMap<>(metadata), HexFormat.of().formatHex(md5.digest()), fileVersion(tmp)));
+          Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException e) {
+      throw new ObjectStoreException("Could not write " + path, e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String currentETag(AssetFilePath filePath, Path path) throws IOException {
+    try {
+      return resolveMeta(filePath, path).eTag();
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public void copy(AssetFilePath fromObject, AssetFilePath toObject, Map<String, String> metadata) {
+    Path from = objectPath(fromObject);
+    Path to = objectPath(toObject);
+    try {
+      Meta sourceMeta = resolveMeta(fromObject, from);
+      Path tmp = tempFileFor(to);
+      try {
+        try (FileChannel src = FileChannel.open(from, StandardOpenOption.READ);
+             FileChannel dst = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+          long size = src.size();
+          for (long position = 0; position < size; ) {
+            position += src.transferTo(position, size - position, dst);
+          }
+        }
+        synchronized (lockFor(to)) {
+          writeMeta(toObject, new Meta(metadata == null ? sourceMeta.metadata() : new HashMap<>(metadata), sourceMeta.eTag(), fileVersion(tmp)));
+          Files.move(tmp, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (NoSuchFileException e) {
+      throw new ObjectNotFoundException(fromObject, e);
+    } catch (IOException e) {
+      throw new ObjectStoreException("Could not copy " + from + " to " + to, e);
+    }
+  }
+
+  @Override
+  public StoredContent get(AssetFilePath filePath, ByteRange range) {
+    Path path = objectPath(filePath);
+    try {
+      // The metadata is resolved for the file that got opened, the object could be replaced in the meantime
+      while (true) {
+        String version = fileVersion(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+          if (!version.equals(fileVersion(path))) continue;
+          long size = channel.size();
+          long position = 0;
+          if (range != null) {
+            if (range.first() >= size) throw new ObjectStoreException("Range " + range + " is not satisfiable for " + path, null);
+            position = range.first();
+            size = Math.min(size, range.last() + 1) - position;
+          }
+          // The mapping stays valid after the channel is closed
+          MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+          return new StoredContent(new ByteBufferInputStream(buffer), resolveMeta(filePath, path, version).info());
+        }
+      }
+    } catch (NoSuchFileException e) {
+      throw new ObjectNotFoundException(filePath, e);
+    } catch (IOException e) {
+      throw new ObjectStoreException("Could not read " + path, e);
+    }
+  }
+
+  @Override
+  public Optional<ObjectInfo> head(AssetFilePath filePath) {
+    Path path = objectPath(filePath);
+    try {
+      return Optional.of(resolveMeta(filePath, path).info());
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      throw new ObjectStoreException("Could not read metadata of " + filePath.getFullQualifiedPath(), e);
+    }
+  }
+
+  // Expires like the presigned urls of S3ObjectStore
+  @Override
+  public URL preSignedUrl(AssetFilePath filePath, String contentType) {
+    try {
+      URL objectUrl = new URL(publicUrl + "/" + filePath.getBucketName() + "/" + stripLeadingSlash(filePath.getFullQualifiedPath()));
+      long expires = clock.instant().plus(filePath.isPrivateFile() ? Duration.ofMinutes(30) : Duration.ofMinutes(10)).getEpochSecond();
+      return new URL(objectUrl + "?" + EXPIRES_PARAM + "=" + expires + "&" + SIGNATURE_PARAM + "=" + sign(objectUrl.getPath(), contentType, expires));
+    } catch (MalformedURLException e) {
+      throw new IllegalStateException("Invalid public url of local object store " + publicUrl, e);
+    }
+  }
+
+  /*
+   * Whether a PUT to the uri (path and query as requested from the file server) with the content type is allowed, i.e.
+   * the uri is an upload url made by preSignedUrl for the same content type that has not expired.
+   */
+  public boolean isValidUploadUrl(String uri, String contentType) {
+    int queryStart = uri.indexOf('?');
+    if (queryStart < 0) return false;
+    Map<String, String> params = new HashMap<>();
+    for (String param : uri.substring(queryStart + 1).split("&")) {
+      int eq = param.indexOf('=');
+      if (eq > 0) params.put(param.substring(0, eq), param.substring(eq + 1));
+    }
+
+    long expires;
+    try {
+      expires = Long.parseLong(params.getOrDefault(EXPIRES_PARAM, ""));
+    } catch (NumberFormatException e) {
+      return false;
+    }
+    if (clock.instant().getEpochSecond() > expires) return false;
+    String signature = params.get(SIGNATURE_PARAM);
+    return signature != null && MessageDigest.isEqual(
+      sign(uri.substring(0, queryStart), contentType, expires).getBytes(StandardCharsets.UTF_8),
+      signature.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String sign(String path, String contentType, long expires) {
+    try {
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(signingKey);
+      byte[] signature = mac.doFinal(("PUT\n" + path + "\n" + Objects.toString(contentType, "") + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Object lockFor(Path path) {
+    return moveLocks[Math.floorMod(path.hashCode(), moveLocks.length)];
+  }
+
+  private Path tempFileFor(Path path) throws IOException {
+    Files.createDirectories(path.getParent());
+    return Files.createTempFile(path.getParent(), ".", ".tmp");
+  }
+
+  // Identifies the file an object was written to. A move keeps it, every write creates a new file.
+  private static String fileVersion(Path path) throws IOException {
+    BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+    return attrs.fileKey() + ":" + attrs.size() + ":" + attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+  }
+
+  private Meta resolveMeta(AssetFilePath filePath, Path path) throws IOException {
+    return resolveMeta(filePath, path, fileVersion(path));
+  }
+
+  private Meta resolveMeta(AssetFilePath filePath, Path path, String version) throws IOException {
+    Optional<Meta> meta = readMeta(filePath);
+    if (meta.isPresent() && version.equals(meta.get().version())) return meta.get();
+    return deriveMeta(path, version);
+  }
+
+  private static Meta deriveMeta(Path path, String version) throws IOException {
+    try (InputStream in = Files.newInputStream(path)) {
+      MessageDigest md5 = MessageDigest.getInstance("MD5");
+      byte[] head = in.readNBytes(2);
+      md5.update(head);
+      in.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), md5));
+      Map<String, String> metadata = new HashMap<>();
+      if (head.length == 2 && (head[0] & 0xff) == 0x1f && (head[1] & 0xff) == 0x8b) metadata.put(HttpHeaders.CONTENT_ENCODING, "gzip");
+      return new Meta(metadata, HexFormat.of().formatHex(md5.digest()), version);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Optional<Meta> readMeta(AssetFilePath filePath) throws IOException {
+    try (InputStream in = Files.newInputStream(metaPath(filePath))) {
+      return Optional.of(objectMapper.readValue(in, Meta.class));
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    }
+  }
+
+  private void writeMeta(AssetFilePath filePath, Meta meta) throws IOException {
+    Path path = metaPath(filePath);
+    Path tmp = tempFileFor(path);
+    try {
+      Files.write(tmp, objectMapper.writeValueAsBytes(meta));
+      Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  record Meta(Map<String, String> metadata, String eTag, String version) {
+    ObjectInfo info() {
+      return new ObjectInfo(metadata.get(HttpHeaders.CONTENT_ENCODING), eTag);
+    }
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) return 0;
+      if (!buffer.hasRemaining()) return -1;
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
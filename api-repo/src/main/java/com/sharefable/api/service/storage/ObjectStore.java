@@ -0,0 +1,80 @@
+package com.sharefable.api.service.storage;
+
+import com.sharefable.api.common.AssetFilePath;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.Optional;
+
+/*
+ * Storage backend of S3Service. Objects are addressed by the bucket and full qualified path of an AssetFilePath.
+ *
+ * Metadata maps are keyed the way S3Service gets them; Content-Type, Content-Encoding and Cache-Control by their http
+ * header names, everything else is user defined metadata. The ETag of an object is the md5 of its stored bytes and a
+ * copy keeps the ETag of its source.
+ */
+public interface ObjectStore {
+  void put(AssetFilePath filePath, InputStream content, long contentLength, Map<String, String> metadata);
+
+  /*
+   * Writes the object only if it exists with the ETag expectedETag, the check and the write are atomic (also across
+   * nodes). Throws PreconditionFailedException otherwise. The content is written in one piece, it's meant for small
+   * objects.
+   */
+  void putIfMatch(AssetFilePath filePath, InputStream content, long contentLength, Map<String, String> metadata, String expectedETag);
+
+  // metadata replaces the metadata of the source when not null, otherwise the source's metadata is kept
+  void copy(AssetFilePath fromObject, AssetFilePath toObject, Map<String, String> metadata);
+
+  // Throws ObjectNotFoundException if there is no such object
+  default StoredContent get(AssetFilePath filePath) {
+    return get(filePath, null);
+  }
+
+  // Only the given range of the stored bytes is read when range is not null
+  StoredContent get(AssetFilePath filePath, ByteRange range);
+
+  Optional<ObjectInfo> head(AssetFilePath filePath);
+
+  // Url the client uploads the object to with a PUT
+  URL preSignedUrl(AssetFilePath filePath, String contentType);
+
+  record ObjectInfo(String contentEncoding, String eTag) {
+  }
+
+  // Offsets are inclusive like in the http Range header, a last byte past the end of the object reads till the end
+  record ByteRange(long first, long last) {
+    public ByteRange {
+      if (first < 0 || last < first) throw new IllegalArgumentException("Invalid byte range " + first + "-" + last);
+    }
+  }
+
+  // Content as it is stored (i.e. not decompressed), has to be closed
+  record StoredContent(InputStream content, ObjectInfo info) implements Closeable {
+    @Override
+    public void close() throws IOException {
+      content.close();
+    }
+  }
+
+  class ObjectStoreException extends RuntimeException {
+    public ObjectStoreException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+
+  class PreconditionFailedException extends ObjectStoreException {
+    public PreconditionFailedException(AssetFilePath filePath, Throwable cause) {
+      super("Object at " + filePath.getBucketName() + "/" + filePath.getFullQualifiedPath() + " has changed", cause);
+    }
+  }
+
+  class ObjectNotFoundException extends ObjectStoreException {
+    public ObjectNotFoundException(AssetFilePath filePath, Throwable cause) {
+      super("No object at " + filePath.getBucketName() + "/" + filePath.getFullQualifiedPath(), cause);
+    }
+  }
+}
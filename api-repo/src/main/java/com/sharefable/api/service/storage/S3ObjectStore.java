@@ -0,0 +1,197 @@
+package com.sharefable.api.service.storage;
+
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.sharefable.api.common.AssetFilePath;
+import com.sharefable.api.common.IoExecutor;
+import org.apache.commons.lang3.time.DateUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/*
+ * Objects at least multipartThresholdBytes big are uploaded in parts of multipartPartSizeBytes, the parts are uploaded
+ * in parallel on IoExecutor.S3. The ETag of such an object is not the md5 of its content.
+ */
+public class S3ObjectStore implements ObjectStore {
+  // Bounds the memory a multipart upload holds, a part is read from the content only after an earlier one is uploaded
+  private static final int MAX_PARTS_IN_FLIGHT = 4;
+
+  private final AmazonS3 client;
+  private final AmazonS3 pvtClient;
+  private final long multipartThresholdBytes;
+  private final long multipartPartSizeBytes;
+
+  public S3ObjectStore(AmazonS3 client, AmazonS3 pvtClient, long multipartThresholdBytes, long multipartPartSizeBytes) {
+    this.client = client;
+    this.pvtClient = pvtClient;
+    this.multipartThresholdBytes = multipartThresholdBytes;
+    this.multipartPartSizeBytes = multipartPartSizeBytes;
+  }
+
+  private static ObjectMetadata getS3ObjectMetadata(HashMap<String, String> assetMetadata) {
+    ObjectMetadata meta = new ObjectMetadata();
+    String contentType;
+    if ((contentType = assetMetadata.get(HttpHeaders.CONTENT_TYPE)) != null) {
+      meta.setContentType(contentType);
+      assetMetadata.remove(HttpHeaders.CONTENT_TYPE);
+    }
+    String contentEncoding;
+    if ((contentEncoding = assetMetadata.get(HttpHeaders.CONTENT_ENCODING)) != null) {
+      meta.setContentEncoding(contentEncoding);
+      assetMetadata.remove(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    String cacheControl;
+    if ((cacheControl = assetMetadata.get(HttpHeaders.CACHE_CONTROL)) != null) {
+      meta.setCacheControl(cacheControl);
+      assetMetadata.remove(HttpHeaders.CACHE_CONTROL);
+    }
+
+
+    for (Map.Entry<String, String> metadata : assetMetadata.entrySet()) {
+      meta.addUserMetadata(metadata.getKey(), metadata.getValue());
+    }
+
+    return meta;
+  }
+
+  private static boolean isNotFound(AmazonS3Exception e) {
+    return e.getStatusCode() == HttpStatus.NOT_FOUND.value();
+  }
+
+  @Override
+  public void put(AssetFilePath filePath, InputStream content, long contentLength, Map<String, String> metadata) {
+    ObjectMetadata meta = getS3ObjectMetadata(new HashMap<>(metadata));
+    if (contentLength >= multipartThresholdBytes) {
+      putInParts(filePath, content, contentLength, meta);
+      return;
+    }
+    // Without the content length the sdk buffers the whole stream in memory before sending it
+    meta.setContentLength(contentLength);
+    PutObjectRequest req = new PutObjectRequest(
+      filePath.getBucketName(),
+      filePath.getFullQualifiedPath(),
+      content,
+      meta);
+    client.putObject(req);
+  }
+
+  // S3 checks If-Match on PUT, the v1 sdk has no field for it hence it's sent as a custom header
+  @Override
+  public void putIfMatch(AssetFilePath filePath, InputStream content, long contentLength, Map<String, String> metadata, String expectedETag) {
+    ObjectMetadata meta = getS3ObjectMetadata(new HashMap<>(metadata));
+    meta.setContentLength(contentLength);
+    PutObjectRequest req = new PutObjectRequest(
+      filePath.getBucketName(),
+      filePath.getFullQualifiedPath(),
+      content,
+      meta);
+    req.putCustomRequestHeader(HttpHeaders.IF_MATCH, "\"" + expectedETag + "\"");
+    try {
+      client.putObject(req);
+    } catch (AmazonS3Exception e) {
+      // 409 is returned when a conditional write of the object is in progress, 404 when there is no object to match
+      if (e.getStatusCode() == HttpStatus.PRECONDITION_FAILED.value() || e.getStatusCode() == HttpStatus.CONFLICT.value()
+        || isNotFound(e)) {
+        throw new PreconditionFailedException(filePath, e);
+      }
+      throw e;
+    }
+  }
+
+  private void putInParts(AssetFilePath filePath, InputStream content, long contentLength, ObjectMetadata meta) {
+    String bucket = filePath.getBucketName();
+    String key = filePath.getFullQualifiedPath();
+    String uploadId = client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, key, meta)).getUploadId();
+    List<CompletableFuture<PartETag>> parts = new ArrayList<>();
+    try {
+      int partNumber = 1;
+      for (long offset = 0; offset < contentLength; offset += multipartPartSizeBytes, partNumber++) {
+        if (parts.size() >= MAX_PARTS_IN_FLIGHT) parts.get(parts.size() - MAX_PARTS_IN_FLIGHT).join();
+        byte[] part = content.readNBytes((int) Math.min(multipartPartSizeBytes, contentLength - offset));
+        UploadPartRequest req = new UploadPartRequest()
+          .withBucketName(bucket)
+          .withKey(key)
+          .withUploadId(uploadId)
+          .withPartNumber(partNumber)
+          .withInputStream(new ByteArrayInputStream(part))
+          .withPartSize(part.length);
+        parts.add(IoExecutor.S3.supplyAsync(() -> client.uploadPart(req).getPartETag()));
+      }
+      List<PartETag> partETags = parts.stream().map(CompletableFuture::join).toList();
+      client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+    } catch (IOException | RuntimeException e) {
+      // Parts that are still being uploaded would outlive the abort
+      parts.forEach(part -> part.handle((partETag, t) -> null).join());
+      client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+      if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause) throw cause;
+      if (e instanceof RuntimeException re) throw re;
+      throw new ObjectStoreException("Could not read the content of " + key, e);
+    }
+  }
+
+  @Override
+  public void copy(AssetFilePath fromObject, AssetFilePath toObject, Map<String, String> metadata) {
+    CopyObjectRequest req = new CopyObjectRequest(
+      fromObject.getBucketName(),
+      fromObject.getFullQualifiedPath(),
+      toObject.getBucketName(),
+      toObject.getFullQualifiedPath());
+    if (metadata != null) req.withNewObjectMetadata(getS3ObjectMetadata(new HashMap<>(metadata)));
+    try {
+      client.copyObject(req);
+    } catch (AmazonS3Exception e) {
+      if (isNotFound(e)) throw new ObjectNotFoundException(fromObject, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public StoredContent get(AssetFilePath filePath, ByteRange range) {
+    GetObjectRequest req = new GetObjectRequest(
+      filePath.getBucketName(),
+      filePath.getFullQualifiedPath()
+    );
+    if (range != null) req.setRange(range.first(), range.last());
+    try {
+      S3Object object = client.getObject(req);
+      ObjectMetadata meta = object.getObjectMetadata();
+      return new StoredContent(object.getObjectContent(), new ObjectInfo(meta.getContentEncoding(), meta.getETag()));
+    } catch (AmazonS3Exception e) {
+      if (isNotFound(e)) throw new ObjectNotFoundException(filePath, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public Optional<ObjectInfo> head(AssetFilePath filePath) {
+    try {
+      ObjectMetadata meta = client.getObjectMetadata(filePath.getBucketName(), filePath.getFullQualifiedPath());
+      return Optional.of(new ObjectInfo(meta.getContentEncoding(), meta.getETag()));
+    } catch (AmazonS3Exception e) {
+      if (isNotFound(e)) return Optional.empty();
+      throw e;
+    }
+  }
+
+  @Override
+  public URL preSignedUrl(AssetFilePath filePath, String contentType) {
+    boolean pvt = filePath.isPrivateFile();
+    GeneratePresignedUrlRequest req =
+      new GeneratePresignedUrlRequest(filePath.getBucketName(), filePath.getFullQualifiedPath());
+    Date expireAt = DateUtils.addMinutes(new Date(), pvt ? 30 : 10);
+    req.setExpiration(expireAt);
+    req.setMethod(HttpMethod.PUT);
+    req.setContentType(contentType);
+    return (pvt ? pvtClient : client).generatePresignedUrl(req);
+  }
+}
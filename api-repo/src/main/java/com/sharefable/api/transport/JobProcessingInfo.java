@@ -8,6 +8,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sharefable.api.common.MapSerializable;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 import java.util.Map;
@@ -27,10 +28,19 @@ import java.util.Random;
         name = ImgResizingJobInfo.DISCRIMINATOR,
         value = ImgResizingJobInfo.class
     ),
+    @JsonSubTypes.Type(
+        name = PublishTourJobInfo.DISCRIMINATOR,
+        value = PublishTourJobInfo.class
+    ),
+    @JsonSubTypes.Type(
+        name = RepublishOrgJobInfo.DISCRIMINATOR,
+        value = RepublishOrgJobInfo.class
+    ),
 })
 @Data
 @GenerateTSDef
 @SuperBuilder(toBuilder = true)
+@NoArgsConstructor
 public abstract class JobProcessingInfo implements MapSerializable {
     @JsonIgnore
     private final ObjectMapper objectMapper = new ObjectMapper();
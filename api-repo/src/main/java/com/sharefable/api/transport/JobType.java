@@ -8,4 +8,6 @@ public enum JobType {
   CREATE_DEMO_GIF,
   DELETE_ASSET,
   REFRESH_CRAWLER,
+  PUBLISH_TOUR,
+  REPUBLISH_ORG,
 }
@@ -0,0 +1,23 @@
+package com.sharefable.api.transport;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+@GenerateTSDef
+@SuperBuilder(toBuilder = true)
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class PublishTourJobInfo extends JobProcessingInfo {
+  public static final String DISCRIMINATOR = "PUBLISH_TOUR";
+  private String rid;
+  private Long orgId;
+  private Integer publishedVersion;
+
+  @Override
+  public String getType() {
+    return DISCRIMINATOR;
+  }
+}
@@ -0,0 +1,24 @@
+package com.sharefable.api.transport;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+@GenerateTSDef
+@SuperBuilder(toBuilder = true)
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class RepublishOrgJobInfo extends JobProcessingInfo {
+  public static final String DISCRIMINATOR = "REPUBLISH_ORG";
+  private Long orgId;
+  private Integer total;
+  private Integer done;
+  private Integer failed;
+
+  @Override
+  public String getType() {
+    return DISCRIMINATOR;
+  }
+}
@@ -0,0 +1,11 @@
+package com.sharefable.api.transport.req;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sharefable.api.transport.GenerateTSDef;
+
+/*
+ * baseVersion is the version (ETag) of the file the patch is made for, patch is a JSON Patch (RFC 6902) document
+ */
+@GenerateTSDef
+public record ReqPatchEdit(String rid, String baseVersion, JsonNode patch) {
+}
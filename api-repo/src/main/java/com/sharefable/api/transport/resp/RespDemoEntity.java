@@ -57,6 +57,9 @@ public class RespDemoEntity extends ResponseBase {
   private TourSettings settings;
   @OptionalPropInTS
   private List<Dataset> datasets;
+  // Version (md5) of the edit file written by the request, set only on edit responses
+  @OptionalPropInTS
+  private String editVersion;
 
   public static RespDemoEntity from(DemoEntity demoEntity) {
     try {
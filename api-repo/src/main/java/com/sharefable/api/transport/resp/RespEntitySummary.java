@@ -0,0 +1,36 @@
+package com.sharefable.api.transport.resp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sharefable.api.common.TopLevelEntityType;
+import com.sharefable.api.transport.GenerateTSDef;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/*
+ * List view shape of a tour / demo hub. This is directly projected from db (see DemoEntityRepo.findSummaryPageForOrg),
+ * hence the order of the fields is the order of the constructor arguments used in the query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@GenerateTSDef
+public class RespEntitySummary {
+  private Long id;
+  private String rid;
+  private String assetPrefixHash;
+  private String displayName;
+  private String description;
+  private TopLevelEntityType entityType;
+  private Boolean inProgress;
+  private Timestamp lastPublishedDate;
+  private Timestamp lastInteractedAt;
+  private Timestamp updatedAt;
+  private Long createdById;
+  private String createdByFirstName;
+  private String createdByLastName;
+  private String createdByAvatar;
+}
@@ -0,0 +1,29 @@
+package com.sharefable.api.transport.resp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sharefable.api.common.KeysetCursor;
+import com.sharefable.api.transport.GenerateTSDef;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@GenerateTSDef
+public class RespPage<T> {
+  private List<T> items;
+  // Opaque cursor to be passed to get the next page, absent when this is the last page
+  private String next;
+
+  // rows are expected to be fetched with KeysetCursor.pageRequestFor(pageSize), i.e. one row more than the page size
+  public static <T> RespPage<T> of(List<T> rows, int pageSize, Function<T, KeysetCursor> cursorOf) {
+    if (rows.size() <= pageSize) return new RespPage<>(rows, null);
+    List<T> items = rows.subList(0, pageSize);
+    return new RespPage<>(List.copyOf(items), cursorOf.apply(items.get(pageSize - 1)).encode());
+  }
+}
@@ -0,0 +1,20 @@
+package com.sharefable.api.transport.resp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sharefable.api.transport.GenerateTSDef;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@Setter
+@ToString
+@SuperBuilder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@GenerateTSDef
+public class RespPatchedEdit extends ResponseBase {
+  private String rid;
+  // Version of the file after the patch, the next patch is made on top of this
+  private String version;
+}
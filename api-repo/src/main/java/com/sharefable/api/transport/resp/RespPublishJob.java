@@ -0,0 +1,41 @@
+package com.sharefable.api.transport.resp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sharefable.api.entity.Job;
+import com.sharefable.api.transport.GenerateTSDef;
+import com.sharefable.api.transport.JobProcessingStatus;
+import com.sharefable.api.transport.OptionalPropInTS;
+import com.sharefable.api.transport.PublishTourJobInfo;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@Setter
+@ToString
+@SuperBuilder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@GenerateTSDef
+public class RespPublishJob extends ResponseBase {
+  private Long jobId;
+  private String rid;
+  private JobProcessingStatus processingState;
+  @OptionalPropInTS
+  private Integer publishedVersion;
+  @OptionalPropInTS
+  private String failureReason;
+
+  public static RespPublishJob from(Job job) {
+    PublishTourJobInfo info = (PublishTourJobInfo) job.getInfo();
+    return RespPublishJob.builder()
+      .jobId(job.getId())
+      .rid(info.getRid())
+      .processingState(job.getProcessingStatus())
+      .publishedVersion(info.getPublishedVersion())
+      .failureReason(job.getFailureReason())
+      .createdAt(job.getCreatedAt())
+      .updatedAt(job.getUpdatedAt())
+      .build();
+  }
+}
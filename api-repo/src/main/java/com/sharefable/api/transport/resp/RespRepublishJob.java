@@ -0,0 +1,45 @@
+package com.sharefable.api.transport.resp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sharefable.api.entity.Job;
+import com.sharefable.api.transport.GenerateTSDef;
+import com.sharefable.api.transport.JobProcessingStatus;
+import com.sharefable.api.transport.OptionalPropInTS;
+import com.sharefable.api.transport.RepublishOrgJobInfo;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@Setter
+@ToString
+@SuperBuilder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@GenerateTSDef
+public class RespRepublishJob extends ResponseBase {
+  private Long jobId;
+  private JobProcessingStatus processingState;
+  @OptionalPropInTS
+  private Integer total;
+  @OptionalPropInTS
+  private Integer done;
+  @OptionalPropInTS
+  private Integer failed;
+  @OptionalPropInTS
+  private String failureReason;
+
+  public static RespRepublishJob from(Job job) {
+    RepublishOrgJobInfo info = (RepublishOrgJobInfo) job.getInfo();
+    return RespRepublishJob.builder()
+      .jobId(job.getId())
+      .processingState(job.getProcessingStatus())
+      .total(info.getTotal())
+      .done(info.getDone())
+      .failed(info.getFailed())
+      .failureReason(job.getFailureReason())
+      .createdAt(job.getCreatedAt())
+      .updatedAt(job.getUpdatedAt())
+      .build();
+  }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.sharefable.api.common.Utils;
 import com.sharefable.api.entity.Screen;
 import com.sharefable.api.transport.GenerateTSDef;
+import com.sharefable.api.transport.OptionalPropInTS;
 import com.sharefable.api.transport.ScreenType;
 import io.sentry.Sentry;
 import lombok.*;
@@ -28,6 +29,9 @@ public class RespScreen extends ResponseBase {
     private Long parentScreenId;
     private String rid;
     private String assetPrefixHash;
+    // Set for cloned screens, the data file (and image) is read from this prefix instead of assetPrefixHash
+    @OptionalPropInTS
+    private String blobPrefixHash;
     private String displayName;
     private RespUser createdBy;
     private String thumbnail;
@@ -36,6 +40,12 @@ public class RespScreen extends ResponseBase {
     private Boolean responsive;
     private ScreenType type;
     private Optional<String> uploadUrl;
+    // Set only in the published tour, when the screen's published edit file differs from the tour's pubEditFileName
+    @OptionalPropInTS
+    private String pubEditFileName;
+    // Version (md5) of the edit file written by the request, set only on edit responses
+    @OptionalPropInTS
+    private String editVersion;
 
     public static RespScreen from(Screen screen) {
         try {
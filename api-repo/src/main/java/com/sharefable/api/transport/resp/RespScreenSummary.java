@@ -0,0 +1,35 @@
+package com.sharefable.api.transport.resp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sharefable.api.transport.GenerateTSDef;
+import com.sharefable.api.transport.ScreenType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/*
+ * List view shape of a screen. This is directly projected from db (see ScreenRepo.findSummaryPageForOrg), hence the
+ * order of the fields is the order of the constructor arguments used in the query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@GenerateTSDef
+public class RespScreenSummary {
+  private Long id;
+  private Long parentScreenId;
+  private String rid;
+  private String assetPrefixHash;
+  private String displayName;
+  private String thumbnail;
+  private String url;
+  private String icon;
+  private ScreenType type;
+  private Timestamp updatedAt;
+  private Long createdById;
+  private String createdByFirstName;
+  private String createdByLastName;
+}
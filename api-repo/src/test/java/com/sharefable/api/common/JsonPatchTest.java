@@ -0,0 +1,52 @@
+package com.sharefable.api.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+class JsonPatchTest {
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  void appliesAllOperations() throws IOException {
+    JsonNode document = mapper.readTree("""
+      { "a": { "b": 1, "c/d": [1, 2, 3] }, "e": "x", "f": [] }
+      """);
+    JsonNode patch = mapper.readTree("""
+      [
+        { "op": "add", "path": "/a/n", "value": { "k": true } },
+        { "op": "add", "path": "/a/c~1d/1", "value": 9 },
+        { "op": "add", "path": "/f/-", "value": "last" },
+        { "op": "remove", "path": "/a/c~1d/0" },
+        { "op": "replace", "path": "/e", "value": "y" },
+        { "op": "move", "from": "/a/b", "path": "/b" },
+        { "op": "copy", "from": "/a/n", "path": "/n" },
+        { "op": "test", "path": "/n/k", "value": true }
+      ]
+      """);
+
+    JsonNode patched = JsonPatch.apply(document, patch);
+
+    Assertions.assertEquals(mapper.readTree("""
+      { "a": { "c/d": [9, 2, 3], "n": { "k": true } }, "e": "y", "f": ["last"], "b": 1, "n": { "k": true } }
+      """), patched);
+    Assertions.assertEquals("x", document.get("e").asText());
+  }
+
+  @Test
+  void rejectsInvalidPatches() throws IOException {
+    JsonNode document = mapper.readTree("{ \"a\": [1] }");
+
+    Assertions.assertThrows(JsonPatch.InvalidPatchException.class,
+      () -> JsonPatch.apply(document, mapper.readTree("[{ \"op\": \"remove\", \"path\": \"/b\" }]")));
+    Assertions.assertThrows(JsonPatch.InvalidPatchException.class,
+      () -> JsonPatch.apply(document, mapper.readTree("[{ \"op\": \"add\", \"path\": \"/a/2\", \"value\": 1 }]")));
+    Assertions.assertThrows(JsonPatch.InvalidPatchException.class,
+      () -> JsonPatch.apply(document, mapper.readTree("[{ \"op\": \"move\", \"from\": \"/a\", \"path\": \"/a/0\" }]")));
+    Assertions.assertThrows(JsonPatch.TestFailedException.class,
+      () -> JsonPatch.apply(document, mapper.readTree("[{ \"op\": \"test\", \"path\": \"/a/0\", \"value\": 2 }]")));
+  }
+}
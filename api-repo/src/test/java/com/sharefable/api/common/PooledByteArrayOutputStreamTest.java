@@ -0,0 +1,54 @@
+package com.sharefable.api.common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+class PooledByteArrayOutputStreamTest {
+  private static byte[] content(int size) {
+    byte[] content = new byte[size];
+    for (int i = 0; i < size; i++) content[i] = (byte) i;
+    return content;
+  }
+
+  @Test
+  void reusesBuffersOfBigPayloads() throws IOException {
+    PooledByteArrayOutputStream.BufferPool pool = new PooledByteArrayOutputStream.BufferPool(16 * 1024 * 1024, 8 * 1024 * 1024);
+    byte[] content = content(5 * 1024 * 1024);
+
+    PooledByteArrayOutputStream out = PooledByteArrayOutputStream.acquire(pool);
+    out.write(content);
+    Assertions.assertArrayEquals(content, out.toInputStream().readAllBytes());
+    out.release();
+    long pooled = pool.pooledBytes();
+    Assertions.assertTrue(pooled >= content.length);
+
+    // The grown buffer is handed out again and the content fits without growing it
+    PooledByteArrayOutputStream reused = PooledByteArrayOutputStream.acquire(pool);
+    Assertions.assertEquals(0, pool.pooledBytes());
+    Assertions.assertEquals(0, reused.size());
+    reused.write(content);
+    reused.release();
+    Assertions.assertEquals(pooled, pool.pooledBytes());
+  }
+
+  @Test
+  void keepsThePoolWithinItsBudget() throws IOException {
+    PooledByteArrayOutputStream.BufferPool pool = new PooledByteArrayOutputStream.BufferPool(3 * 1024 * 1024, 2 * 1024 * 1024);
+
+    PooledByteArrayOutputStream huge = PooledByteArrayOutputStream.acquire(pool);
+    huge.write(content(4 * 1024 * 1024));
+    huge.release();
+    Assertions.assertEquals(0, pool.pooledBytes());
+
+    PooledByteArrayOutputStream[] outs = new PooledByteArrayOutputStream[4];
+    for (int i = 0; i < outs.length; i++) {
+      outs[i] = PooledByteArrayOutputStream.acquire(pool);
+      outs[i].write(content(1024 * 1024));
+    }
+    for (PooledByteArrayOutputStream out : outs) out.release();
+    Assertions.assertTrue(pool.pooledBytes() <= 3 * 1024 * 1024);
+    Assertions.assertTrue(pool.pooledBytes() > 0);
+  }
+}
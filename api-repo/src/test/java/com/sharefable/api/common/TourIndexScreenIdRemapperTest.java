@@ -0,0 +1,73 @@
+package com.sharefable.api.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+class TourIndexScreenIdRemapperTest {
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  void remapsScreenIdsOfCurrentSchema() throws IOException {
+    String index = """
+      {
+        "v": "2023-01-10",
+        "lastUpdatedAtUtc": 1,
+        "opts": { "main": "11/a1", "primaryColor": { "type": 1, "from": "", "_val": "#000" } },
+        "entities": {
+          "11": {
+            "type": "screen",
+            "ref": "11",
+            "annotations": {
+              "a1": {
+                "buttons": [
+                  { "id": "b1", "hotspot": { "actionValue": { "type": 1, "from": "", "_val": "12/a2" }, "actionType": "navigate" } },
+                  { "id": "b2", "hotspot": { "actionType": "open", "actionValue": { "type": 1, "from": "", "_val": "12/a2" } } },
+                  { "id": "b3", "hotspot": null }
+                ]
+              }
+            }
+          },
+          "12": { "type": "screen", "ref": "12", "annotations": {} },
+          "99": { "type": "screen", "ref": "99", "annotations": {} }
+        },
+        "journey": { "title": "", "flows": [{ "main": "12/a2" }, { "main": "99/a9" }] }
+      }
+      """;
+
+    JsonNode remapped = remap(index, Map.of("11", "21", "12", "22"));
+
+    Assertions.assertEquals("21/a1", remapped.at("/opts/main").asText());
+    Assertions.assertEquals("#000", remapped.at("/opts/primaryColor/_val").asText());
+    Assertions.assertFalse(remapped.at("/entities").has("11"));
+    Assertions.assertEquals("21", remapped.at("/entities/21/ref").asText());
+    Assertions.assertEquals("22", remapped.at("/entities/22/ref").asText());
+    Assertions.assertEquals("99", remapped.at("/entities/99/ref").asText());
+    Assertions.assertEquals("22/a2", remapped.at("/entities/21/annotations/a1/buttons/0/hotspot/actionValue/_val").asText());
+    Assertions.assertEquals("12/a2", remapped.at("/entities/21/annotations/a1/buttons/1/hotspot/actionValue/_val").asText());
+    Assertions.assertTrue(remapped.at("/entities/21/annotations/a1/buttons/2/hotspot").isNull());
+    Assertions.assertEquals("22/a2", remapped.at("/journey/flows/0/main").asText());
+    Assertions.assertEquals("99/a9", remapped.at("/journey/flows/1/main").asText());
+  }
+
+  @Test
+  void failsForUnknownSchemaVersion() {
+    Assertions.assertThrows(TourIndexScreenIdRemapper.UnsupportedSchemaVersionException.class,
+      () -> remap("{ \"entities\": {}, \"v\": \"2020-01-01\" }", Map.of()));
+    Assertions.assertThrows(TourIndexScreenIdRemapper.UnsupportedSchemaVersionException.class,
+      () -> remap("{ \"entities\": {} }", Map.of()));
+  }
+
+  private JsonNode remap(String index, Map<String, String> idxm) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TourIndexScreenIdRemapper.remap(new ByteArrayInputStream(index.getBytes(StandardCharsets.UTF_8)), out, idxm);
+    return mapper.readTree(out.toByteArray());
+  }
+}
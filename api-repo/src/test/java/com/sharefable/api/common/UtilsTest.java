@@ -139,6 +139,26 @@ class UtilsTest {
     Assertions.assertEquals("rid", responseBase.getRid());
     Assertions.assertInstanceOf(TestResp99.class, responseBase.getT());
     Assertions.assertEquals("rid2", responseBase.getT().getRid());
+
+    // Second conversion goes through the cached mapping plan
+    TestResp100 again = (TestResp100) Utils.fromEntityToTransportObject(testEntity100);
+    Assertions.assertEquals(responseBase, again);
+  }
+
+  @SneakyThrows
+  @Test
+  void testEntityTransportConversionWithoutNestedEntity() {
+    TestEntity100 testEntity100 = TestEntity100.builder()
+      .id(1L)
+      .rid("rid")
+      .displayName("dn")
+      .build();
+
+    TestResp100 responseBase = (TestResp100) Utils.fromEntityToTransportObject(testEntity100);
+
+    Assertions.assertEquals("dn", responseBase.getDisplayName());
+    Assertions.assertNull(responseBase.getThumbnail());
+    Assertions.assertNull(responseBase.getT());
   }
 
   @Test
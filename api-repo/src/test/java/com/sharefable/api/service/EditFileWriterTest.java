@@ -0,0 +1,102 @@
+package com.sharefable.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharefable.api.common.AssetFilePath;
+import com.sharefable.api.config.S3Config;
+import com.sharefable.api.service.storage.LocalObjectStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class EditFileWriterTest {
+  private static final AssetFilePath EDIT_FILE =
+    AssetFilePath.builder().bucketName("bucket").fullQualifiedPath("root/srn/0/edits.json").build();
+  private static final S3Config.FileConfig EDIT_FILE_CONFIG = S3Config.getEntityFiles().editFile();
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @TempDir
+  Path root;
+
+  private S3Service s3Service() {
+    S3Config s3Config = new S3Config();
+    s3Config.setCompressionThresholdBytes(Integer.MAX_VALUE);
+    return new S3Service(new LocalObjectStore(root, "http://localhost:8081", "key"), s3Config);
+  }
+
+  // Every buffer is a node of its own, the nodes share the store only
+  private static EditFileWriter node(S3Service s3Service) {
+    return new EditFileWriter(s3Service, null, null, null, null, null);
+  }
+
+  private JsonNode setPatch(String field, int value) throws IOException {
+    return objectMapper.readTree("[{\"op\":\"add\",\"path\":\"/" + field + "\",\"value\":" + value + "}]");
+  }
+
+  private JsonNode stored(S3Service s3Service) throws IOException {
+    return objectMapper.readTree(new String(s3Service.getObjectContent(EDIT_FILE), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void rejectsPatchOnVersionWrittenByAnotherNode() throws IOException {
+    S3Service s3Service = s3Service();
+    EditFileWriter a = node(s3Service);
+    EditFileWriter b = node(s3Service);
+
+    String base = a.recordEntityEdit(1L, EDIT_FILE, EDIT_FILE_CONFIG, "{\"a\":1}");
+    String latest = b.patchEntityEdit(1L, EDIT_FILE, EDIT_FILE_CONFIG, base, setPatch("b", 2));
+
+    // a still has base as the latest content it wrote, the stored version is checked nevertheless
+    EditFileWriter.VersionMismatchException e = Assertions.assertThrows(EditFileWriter.VersionMismatchException.class,
+      () -> a.patchEntityEdit(1L, EDIT_FILE, EDIT_FILE_CONFIG, base, setPatch("c", 3)));
+    Assertions.assertEquals(latest, e.getCurrentVersion());
+    Assertions.assertEquals(objectMapper.readTree("{\"a\":1,\"b\":2}"), stored(s3Service));
+
+    a.patchEntityEdit(1L, EDIT_FILE, EDIT_FILE_CONFIG, "W/\"" + latest + "\"", setPatch("c", 3));
+    Assertions.assertEquals(objectMapper.readTree("{\"a\":1,\"b\":2,\"c\":3}"), stored(s3Service));
+  }
+
+  @Test
+  void acceptsOnlyOneOfConcurrentPatchesOnSameVersion() throws Exception {
+    S3Service s3Service = s3Service();
+    List<EditFileWriter> nodes = List.of(node(s3Service), node(s3Service), node(s3Service), node(s3Service));
+    String base = nodes.get(0).recordEntityEdit(1L, EDIT_FILE, EDIT_FILE_CONFIG, "{}");
+
+    ExecutorService executor = Executors.newFixedThreadPool(nodes.size());
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < nodes.size(); i++) {
+      EditFileWriter node = nodes.get(i);
+      JsonNode patch = setPatch("n" + i, i);
+      results.add(executor.submit(() -> {
+        start.await();
+        return node.patchEntityEdit(1L, EDIT_FILE, EDIT_FILE_CONFIG, base, patch);
+      }));
+    }
+    start.countDown();
+
+    int accepted = 0;
+    for (Future<String> result : results) {
+      try {
+        result.get();
+        accepted++;
+      } catch (Exception e) {
+        Assertions.assertTrue(e.getCause() instanceof EditFileWriter.VersionMismatchException);
+      }
+    }
+    executor.shutdown();
+    Assertions.assertEquals(1, accepted);
+    Assertions.assertEquals(1, stored(s3Service).size());
+  }
+}
@@ -0,0 +1,110 @@
+package com.sharefable.api.service.storage;
+
+import com.sharefable.api.common.AssetFilePath;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+class LocalObjectStoreTest {
+  @TempDir
+  Path root;
+
+  private static AssetFilePath path(String fullQualifiedPath) {
+    return AssetFilePath.builder().bucketName("bucket").fullQualifiedPath(fullQualifiedPath).build();
+  }
+
+  @Test
+  void putsCopiesAndReadsObjects() throws IOException {
+    LocalObjectStore store = new LocalObjectStore(root, "http://localhost:8081", "key");
+    byte[] content = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+
+    store.put(path("root/srn/0/index.json"), new ByteArrayInputStream(content), content.length,
+      Map.of(HttpHeaders.CONTENT_ENCODING, "gzip", HttpHeaders.CACHE_CONTROL, "max-age=0"));
+    store.copy(path("root/srn/0/index.json"), path("root/srn/1/index.json"), null);
+
+    try (ObjectStore.StoredContent stored = store.get(path("root/srn/1/index.json"))) {
+      Assertions.assertArrayEquals(content, stored.content().readAllBytes());
+      Assertions.assertEquals(new ObjectStore.ObjectInfo("gzip", DigestUtils.md5Hex(content)), stored.info());
+    }
+    try (ObjectStore.StoredContent stored = store.get(path("root/srn/1/index.json"), new ObjectStore.ByteRange(1, 4))) {
+      Assertions.assertEquals("\"a\":", new String(stored.content().readAllBytes(), StandardCharsets.UTF_8));
+    }
+    Assertions.assertTrue(store.head(path("root/srn/2/index.json")).isEmpty());
+    Assertions.assertThrows(ObjectStore.ObjectNotFoundException.class, () -> store.get(path("root/srn/2/index.json")));
+    Assertions.assertThrows(ObjectStore.ObjectNotFoundException.class,
+      () -> store.copy(path("root/srn/2/index.json"), path("root/srn/3/index.json"), null));
+    Assertions.assertThrows(IllegalArgumentException.class,
+      () -> store.put(path("../outside.json"), new ByteArrayInputStream(content), content.length, Map.of()));
+  }
+
+  @Test
+  void derivesTheMetadataOfObjectsWithoutAMatchingSidecar() throws IOException {
+    LocalObjectStore store = new LocalObjectStore(root, "http://localhost:8081", "key");
+    byte[] content = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(content);
+    }
+
+    // Uploaded by the client through the file server, no sidecar is written
+    Files.createDirectories(root.resolve("bucket/root/srn/0"));
+    Files.write(root.resolve("bucket/root/srn/0/index.json"), content);
+    Assertions.assertEquals(new ObjectStore.ObjectInfo(null, DigestUtils.md5Hex(content)), store.head(path("root/srn/0/index.json")).orElseThrow());
+
+    // Replaced after the sidecar was written
+    store.put(path("root/srn/1/index.json"), new ByteArrayInputStream(content), content.length, Map.of());
+    Files.write(root.resolve("bucket/root/srn/1/index.json"), compressed.toByteArray());
+    try (ObjectStore.StoredContent stored = store.get(path("root/srn/1/index.json"))) {
+      Assertions.assertEquals(new ObjectStore.ObjectInfo("gzip", DigestUtils.md5Hex(compressed.toByteArray())), stored.info());
+    }
+  }
+
+  @Test
+  void writesObjectsConditionallyOnTheirETag() {
+    LocalObjectStore store = new LocalObjectStore(root, "http://localhost:8081", "key");
+    byte[] first = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+    byte[] second = "{\"a\":2}".getBytes(StandardCharsets.UTF_8);
+
+    Assertions.assertThrows(ObjectStore.PreconditionFailedException.class, () -> store.putIfMatch(path("root/srn/0/edits.json"),
+      new ByteArrayInputStream(first), first.length, Map.of(), DigestUtils.md5Hex(first)));
+    store.put(path("root/srn/0/edits.json"), new ByteArrayInputStream(first), first.length, Map.of());
+    store.putIfMatch(path("root/srn/0/edits.json"), new ByteArrayInputStream(second), second.length, Map.of(), DigestUtils.md5Hex(first));
+    Assertions.assertThrows(ObjectStore.PreconditionFailedException.class, () -> store.putIfMatch(path("root/srn/0/edits.json"),
+      new ByteArrayInputStream(first), first.length, Map.of(), DigestUtils.md5Hex(first)));
+    Assertions.assertEquals(DigestUtils.md5Hex(second), store.head(path("root/srn/0/edits.json")).orElseThrow().eTag());
+  }
+
+  @Test
+  void signsUploadUrls() {
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    LocalObjectStore store = new LocalObjectStore(root, "http://localhost:8081/files", "key", Clock.fixed(now, ZoneOffset.UTC));
+    URL url = store.preSignedUrl(path("root/srn/0/img.png"), "image/png");
+    String uri = url.getFile();
+
+    Assertions.assertTrue(uri.startsWith("/files/bucket/root/srn/0/img.png?"));
+    Assertions.assertTrue(store.isValidUploadUrl(uri, "image/png"));
+    Assertions.assertFalse(store.isValidUploadUrl(uri, "text/html"));
+    Assertions.assertFalse(store.isValidUploadUrl(uri.replace("img.png", "other.png"), "image/png"));
+    Assertions.assertFalse(store.isValidUploadUrl("/files/bucket/root/srn/0/img.png", "image/png"));
+    Assertions.assertFalse(new LocalObjectStore(root, "http://localhost:8081/files", "other", Clock.fixed(now, ZoneOffset.UTC))
+      .isValidUploadUrl(uri, "image/png"));
+    Assertions.assertFalse(new LocalObjectStore(root, "http://localhost:8081/files", "key", Clock.fixed(now.plus(Duration.ofHours(1)), ZoneOffset.UTC))
+      .isValidUploadUrl(uri, "image/png"));
+  }
+}
@@ -2,12 +2,12 @@ import {Express, Request, Response} from 'express';
 import {ReqGenerateAudio, RespGenerateAudio} from './contract';
 import CachedData from '../cached-data';
 import {GetObjectCommand, S3Client} from '@aws-sdk/client-s3';
-import {Readable} from 'stream';
 import {captureException} from '@sentry/node';
 import {ApiResp, ReqDeductCredit, RespUploadUrl, ResponseStatus, SubscriptionCreditType} from '../api-contract';
 import Handlebars from 'handlebars';
 import OpenAI from 'openai';
 import { req as api } from '../api';
+import { readS3ObjectBody } from '../utils';
 
 const openai = new OpenAI({
   apiKey: process.env.OPENAI_KEY as string,
@@ -27,17 +27,12 @@ if (process.env.AWS_S3_ENDPOINT) {
 export const s3 = new S3Client(s3Config);
 
 const cache = new CachedData<AnnotationMap>(async (fileKey: string) => {
-  const {Body: body0} = await s3.send(new GetObjectCommand({
+  const {Body: body0, ContentEncoding: contentEncoding} = await s3.send(new GetObjectCommand({
     Bucket: process.env.AWS_ASSET_FILE_S3_BUCKET as string,
     Key: fileKey,
   }));
 
-  const chunks: Buffer[] = [];
-  const nBody = body0 as Readable;
-  for await (const bodyChunk of nBody) {
-    chunks.push(Buffer.from(bodyChunk));
-  }
-  const fileStr = Buffer.concat(chunks).toString('utf-8');
+  const fileStr = (await readS3ObjectBody(body0, contentEncoding)).toString('utf-8');
   const fileJson = JSON.parse(fileStr);
 
   // We want to convert the tour/index.json to a key value pair for easy lookup
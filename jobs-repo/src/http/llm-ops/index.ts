@@ -2,12 +2,12 @@ import {Express, Request, Response} from 'express';
 import { LLMResp, LLMOpsBase, RouterForTypeOfDemoCreation, CreateNewDemoV1, ThemeForGuideV1, RefForMMV, PostProcessDemoV1, DemoMetadata, UpdateDemoContentV1, RootRouterReq } from './contract';
 import { clients, accounts } from './anthropic';
 import { req as api } from '../../api';
+import { readS3ObjectBody } from '../../utils';
 import { ApiResp, ErrorCode, LLMOps, LLMOpsStatus, ReqDeductCredit, ReqNewLLMRun, ReqUpdateLLMRun, ResponseStatus, SubscriptionCreditType } from 'api-contract';
 import {ImageBlockParam, MessageParam, TextBlockParam, Usage} from '@anthropic-ai/sdk/resources';
 import PROMPTS, {PromptDetails, normalizeWhitespace} from './prompts';
 import {APIError} from '@anthropic-ai/sdk';
 import {GetObjectCommand, S3Client} from '@aws-sdk/client-s3';
-import {Readable} from 'stream';
 import { captureException } from '@sentry/node';
 import hash from 'string-hash';
 import { LogFn } from 'pino';
@@ -38,14 +38,9 @@ async function getImageBase64DataFromUrl(req: Request, url: string): Promise<str
       Bucket: S3_BUCKET,
       Key: url,
     };
-    const {Body: body0} = await s3.send(new GetObjectCommand(params));
+    const {Body: body0, ContentEncoding: contentEncoding} = await s3.send(new GetObjectCommand(params));
 
-    const chunks: Buffer[] = [];
-    const nBody = body0 as Readable;
-    for await (const bodyChunk of nBody) {
-      chunks.push(Buffer.from(bodyChunk));
-    }
-    const base64Data = Buffer.concat(chunks).toString('base64');
+    const base64Data = (await readS3ObjectBody(body0, contentEncoding)).toString('base64');
     return base64Data;
   } catch (error) {
     req.log.fatal(`Error while getting base64 data from s3 url ${url}: ${(error as Error).stack}`);
@@ -0,0 +1,14 @@
+import {Readable} from 'stream';
+import {gzipSync} from 'zlib';
+import {readS3ObjectBody} from './utils';
+
+test('Should read the body as it is stored when it is not compressed', async () => {
+  const content = await readS3ObjectBody(Readable.from([Buffer.from('{"a":'), Buffer.from('1}')]));
+  expect(content.toString('utf-8')).toBe('{"a":1}');
+});
+
+test('Should decompress the body when it is stored gzip compressed', async () => {
+  const compressed = gzipSync(Buffer.from('{"a":1}'));
+  const content = await readS3ObjectBody(Readable.from([compressed.subarray(0, 5), compressed.subarray(5)]), 'gzip');
+  expect(content.toString('utf-8')).toBe('{"a":1}');
+});
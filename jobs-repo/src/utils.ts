@@ -1,5 +1,10 @@
+import {Readable} from 'stream';
+import {promisify} from 'util';
+import {gunzip} from 'zlib';
 import * as log from './log';
 
+const gunzipAsync = promisify(gunzip);
+
 export function deepcopy<T>(obj:T): T {
   return JSON.parse(JSON.stringify(obj));
 }
@@ -45,4 +50,18 @@ export function getS3FileLocationFromURI(path: string) {
     fullFilePath: pathname,
     fileName,
   };
-}
\ No newline at end of file
+}
+
+/*
+ * Reads the body of an S3 GetObject response. The api server stores big json files gzip compressed with
+ * Content-Encoding set; browsers and the cdn decompress those transparently but the SDK hands over the stored bytes as
+ * they are.
+ */
+export async function readS3ObjectBody(body: unknown, contentEncoding?: string): Promise<Buffer> {
+  const chunks: Buffer[] = [];
+  for await (const bodyChunk of body as Readable) {
+    chunks.push(Buffer.from(bodyChunk));
+  }
+  const content = Buffer.concat(chunks);
+  return contentEncoding?.toLowerCase() === 'gzip' ? gunzipAsync(content) : content;
+}
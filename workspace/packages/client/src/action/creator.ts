@@ -54,6 +54,8 @@ import {
   ReqNewDataset,
   ReqUpdateSubInfo,
   ReqUserSignupDetails,
+  RespPublishJob,
+  JobProcessingStatus,
 } from '@fable/common/dist/api-contract';
 import {
   ReqGenerateAudio,
@@ -73,7 +75,7 @@ import {
   IGlobalConfig,
   SerNode,
 } from '@fable/common/dist/types';
-import { createLiteralProperty, deepcopy, getCurrentUtcUnixTime, getImgScreenData } from '@fable/common/dist/utils';
+import { createLiteralProperty, deepcopy, getCurrentUtcUnixTime, getImgScreenData, sleep } from '@fable/common/dist/utils';
 import { Dispatch } from 'react';
 import { setUser } from '@sentry/react';
 import { sentryCaptureException } from '@fable/common/dist/sentry';
@@ -1061,7 +1063,7 @@ export function deleteTour(tourRid: string) {
       type: ActionType.DELETE_TOUR,
       ridOfTourToBeDeleted: tourRid
     });
-    await api<ReqTourRid, ApiResp<RespDemoEntity[]>>('/deltour', {
+    await api<ReqTourRid, ApiResp<RespDemoEntity>>('/deltour', {
       auth: true,
       body: {
         tourRid
@@ -1292,16 +1294,40 @@ export interface TTourPublished {
   tour: P_RespTour;
 }
 
+const PUBLISH_JOB_POLL_INTERVAL_MS = 1000;
+const PUBLISH_JOB_MAX_POLLS = 300;
+
+/*
+ * Publishing runs as a background job on the server, the job is polled till it's done. The synchronous /tpub is kept
+ * only for callers outside of the app.
+ */
+async function waitForPublishJob(job: RespPublishJob): Promise<RespPublishJob> {
+  for (let i = 0; i < PUBLISH_JOB_MAX_POLLS; i++) {
+    if (job.processingState === JobProcessingStatus.Processed || job.processingState === JobProcessingStatus.Failed) {
+      return job;
+    }
+    await sleep(PUBLISH_JOB_POLL_INTERVAL_MS);
+    const data = await api<null, ApiResp<RespPublishJob>>(`/tpubjob?id=${job.jobId}`, { auth: true });
+    job = data.data;
+  }
+  throw new Error(`Publish job ${job.jobId} of tour ${job.rid} did not finish in time`);
+}
+
 export function publishTour(tour: P_RespTour) {
   return async (dispatch: Dispatch<TTour>, getState: () => TState) => {
     const state = getState();
     let publishSuccessful: boolean;
     try {
-      const data = await api<any, ApiResp<RespDemoEntity>>('/tpub', {
+      const submitted = await api<ReqTourRid, ApiResp<RespPublishJob>>('/tpubjob', {
         auth: true,
         body: { tourRid: tour.rid }
       });
+      const job = await waitForPublishJob(submitted.data);
+      if (job.processingState === JobProcessingStatus.Failed) {
+        throw new Error(`Publish job ${job.jobId} failed ${job.failureReason || ''}`);
+      }
 
+      const data = await api<null, ApiResp<RespDemoEntity>>(`/tour?rid=${tour.rid}`, { auth: true });
       tour = processRawTourData(data.data, state.default.commonConfig!, state.default.globalConfig!, false);
       publishSuccessful = true;
     } catch (e) {
@@ -1652,6 +1678,9 @@ const duplicateGivenTour = async (
   getState: () => TState,
 ): Promise<P_RespTour> => {
   const duplicatedTour = processRawTourData(tour, getState().default.commonConfig!, getState().default.globalConfig!);
+  // Server remaps the screen ids of the tour index itself when it understands the index, the duplicate is complete
+  if (!tour.idxm && !tour.inProgress) return duplicatedTour;
+
   const idxm = tour.idxm;
   if (idxm) {
     const tourDataFile = await api<null, TourData>(duplicatedTour.dataFileUri.href);
@@ -2011,7 +2040,7 @@ export function deleteDemoHub(rid: string) {
       type: ActionType.DELETE_DEMOHUB_DATA,
       rid,
     });
-    await api<ReqDemoHubRid, ApiResp<RespDemoEntity[]>>('/deldh', {
+    await api<ReqDemoHubRid, ApiResp<RespDemoEntity>>('/deldh', {
       auth: true,
       body: {
         rid
@@ -299,7 +299,7 @@ class Tours extends React.PureComponent<IProps, IOwnStateProps> {
 
                 const screenDataFileUri = {
                   url: screen!.dataFileUri.href,
-                  name: `/root/srn/${screen.assetPrefixHash}/${config.dataFileName}`,
+                  name: `/root/srn/${screen.blobPrefixHash || screen.assetPrefixHash}/${config.dataFileName}`,
                   hasAssets: ScreenType.Img !== screen.type,
                 };
 
@@ -309,7 +309,7 @@ class Tours extends React.PureComponent<IProps, IOwnStateProps> {
 
                   files.push({
                     url: screen!.dataFileUri.href,
-                    name: `/root/srn/${screen.assetPrefixHash}/index.img`,
+                    name: `/root/srn/${screen.blobPrefixHash || screen.assetPrefixHash}/index.img`,
                     isAsset: true,
                   });
                 }
@@ -319,7 +319,7 @@ class Tours extends React.PureComponent<IProps, IOwnStateProps> {
 
                 if (screen!.parentScreenId && screen!.type === ScreenType.SerDom) {
                   const editFileUri = {
-                    name: `/root/srn/${screen.assetPrefixHash}/${json.data.pubEditFileName}`,
+                    name: `/root/srn/${screen.assetPrefixHash}/${screen.pubEditFileName || json.data.pubEditFileName}`,
                     url: screen!.editFileUri.href,
                     hasAssets: true
                   };
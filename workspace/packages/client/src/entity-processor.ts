@@ -129,10 +129,12 @@ function getFileUris(
 ): {editFileUri: URL, dataFileUri: URL} {
   const screenAssetPath = isForExportedTour ? `${baseUrl}/root/srn/` : config.screenAssetPath;
   const assetPrefixHash = screen.assetPrefixHash;
-  const editFileName = publishForTour ? publishForTour.pubEditFileName : config.editFileName;
+  // A screen whose edits did not change since an earlier publish refers to the edit file of that publish
+  const editFileName = publishForTour ? (screen.pubEditFileName || publishForTour.pubEditFileName) : config.editFileName;
   const dataFileName = config.dataFileName;
 
-  const dataFileUri = new URL(`${screenAssetPath}${assetPrefixHash}/${dataFileName}`);
+  // Cloned screens share the data file of the screen they are cloned from
+  const dataFileUri = new URL(`${screenAssetPath}${screen.blobPrefixHash || assetPrefixHash}/${dataFileName}`);
   const editFileUri = new URL(`${screenAssetPath}${assetPrefixHash}/${editFileName}?ts=${+new Date()}`);
 
   return { editFileUri, dataFileUri };
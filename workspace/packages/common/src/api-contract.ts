@@ -455,6 +455,12 @@ export interface ReqNfHook {
     payload: { [index: string]: string };
 }
 
+export interface ReqPatchEdit {
+    rid: string;
+    baseVersion: string;
+    patch: any;
+}
+
 export interface ReqProxyAsset {
     origin: string;
     clientInfo: string;
@@ -596,6 +602,7 @@ export interface RespDemoEntity extends ResponseBase {
     globalOpts?: any;
     settings?: TourSettings;
     datasets?: Dataset[];
+    editVersion?: string;
     owner: number;
 }
 
@@ -649,6 +656,11 @@ export interface RespOrg extends ResponseBase {
     createdBy: RespUser;
 }
 
+export interface RespPatchedEdit extends ResponseBase {
+    rid: string;
+    version: string;
+}
+
 export interface RespPlatformIntegration extends ResponseBase {
     type: PlatformIntegrationType;
     name: string;
@@ -666,11 +678,20 @@ export interface RespProxyAsset extends ResponseBase {
     hasErr?: boolean;
 }
 
+export interface RespPublishJob extends ResponseBase {
+    jobId: number;
+    rid: string;
+    processingState: JobProcessingStatus;
+    publishedVersion?: number;
+    failureReason?: string;
+}
+
 export interface RespScreen extends ResponseBase {
     id: number;
     parentScreenId: number;
     rid: string;
     assetPrefixHash: string;
+    blobPrefixHash?: string;
     displayName: string;
     createdBy: RespUser;
     thumbnail: string;
@@ -679,6 +700,8 @@ export interface RespScreen extends ResponseBase {
     responsive: boolean;
     type: ScreenType;
     uploadUrl?: string;
+    pubEditFileName?: string;
+    editVersion?: string;
 }
 
 export interface RespSubsValidation {